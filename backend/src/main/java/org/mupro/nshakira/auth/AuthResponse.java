@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String message;
     private UserDTO user;
 
@@ -20,6 +21,13 @@ public class AuthResponse {
         this.user = user;
     }
 
+    // Constructor for login response with an access and a refresh token
+    public AuthResponse(String token, String refreshToken, UserDTO user) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.user = user;
+    }
+
     // Default constructor
     public AuthResponse() {
     }
@@ -35,6 +43,12 @@ public class AuthResponse {
         return new AuthResponse(token, userDTO);
     }
 
+    public static AuthResponse fromUser(User user, String token, String refreshToken) {
+        AuthResponse response = fromUser(user, token);
+        response.setRefreshToken(refreshToken);
+        return response;
+    }
+
     // Getters and setters
     public String getToken() {
         return token;
@@ -44,6 +58,14 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getMessage() {
         return message;
     }
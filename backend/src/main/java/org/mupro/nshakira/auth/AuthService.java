@@ -1,21 +1,33 @@
 package org.mupro.nshakira.auth;
 
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.mupro.nshakira.email.EmailService;
-import org.mupro.nshakira.exception.ResourceNotFoundException;
 import org.mupro.nshakira.security.JwtService;
+import org.mupro.nshakira.security.PrincipalCache;
+import org.mupro.nshakira.security.RevocationIndex;
+import org.mupro.nshakira.security.TokenDigest;
+import org.mupro.nshakira.security.TokenVersions;
+import org.mupro.nshakira.security.VerifiedToken;
 import org.mupro.nshakira.token.Token;
 import org.mupro.nshakira.token.TokenRepository;
+import org.mupro.nshakira.token.TokenType;
 import org.mupro.nshakira.user.Role;
 import org.mupro.nshakira.user.User;
 import org.mupro.nshakira.user.UserRepository;
+import org.mupro.nshakira.verification.VerificationCodeService;
+import org.mupro.nshakira.verification.VerificationPurpose;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.ZoneId;
 @Service
 public class AuthService {
     @Autowired private UserRepository userRepository;
@@ -23,6 +35,11 @@ public class AuthService {
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private JwtService jwtService;
     @Autowired private EmailService emailService;
+    @Autowired private RevocationIndex revocationIndex;
+    @Autowired private TokenVersions tokenVersions;
+    @Autowired private PrincipalCache principalCache;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private VerificationCodeService verificationCodeService;
 
     public AuthResponse register(RegisterRequest request){
         Role role = request.role() == null ? Role.USER : request.role();
@@ -32,86 +49,164 @@ public class AuthService {
                 request.email(),
                 passwordEncoder.encode(request.password()),
                 role,
-                true,
-                ""
+                true
         );
         userRepository.save(user);
         
-        var jwt = jwtService.generateToken(user);
-        saveUserToken(user, jwt);
-        
-        return AuthResponse.fromUser(user, jwt);
+        return issueTokens(user);
     }
 
     public AuthResponse login(AuthRequest request){
-        var user = userRepository.findByEmail(request.email())
-                .orElseThrow(() ->new UsernameNotFoundException("Invalid email"));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            var user = userRepository.findByEmail(request.email())
+                    .orElseThrow(() ->new UsernameNotFoundException("Invalid email"));
+
+            if(!passwordEncoder.matches(request.password(), user.getPassword())){
+                outcome = "rejected";
+                throw new BadCredentialsException("Invalid password");
+            }
+
+            // The cost factor is recalibrated per deployment; bring old hashes in line while we have the password.
+            if(passwordEncoder.upgradeEncoding(user.getPassword())){
+                user.setPassword(passwordEncoder.encode(request.password()));
+                userRepository.save(user);
+                principalCache.invalidate(user.getEmail());
+            }
+
+            revokeAllTokens(user);
 
-        if(!passwordEncoder.matches(request.password(), user.getPassword())){
-            throw new BadCredentialsException("Invalid password");
+            AuthResponse response = issueTokens(user);
+            outcome = "success";
+            return response;
+        } finally {
+            sample.stop(Timer.builder("auth.login")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
+    }
 
-        var jwt = jwtService.generateToken(user);
+    // Exchanges a refresh token for a new access/refresh pair. Each refresh token works once: presenting one that
+    // was already rotated means it leaked, so every session of the user is ended. Tokens that fail the type or version
+    // checks are rejected before the stored row is consumed.
+    public AuthResponse refresh(RefreshRequest request) {
+        VerifiedToken verified = verifyOrReject(request.refreshToken());
+        if (!verified.isRefreshToken()) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        Token storedToken = tokenRepository.findByTokenHash(verified.digest())
+                .filter(token -> token.getTokenType() == TokenType.REFRESH)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        var user = userRepository.findByEmail(verified.subject())
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        if (verified.version() != user.getTokenVersion()) {
+            throw new BadCredentialsException("Session has been revoked");
+        }
 
-        revokeAllTokens(user);
-        saveUserToken(user, jwt);
-        
-        return AuthResponse.fromUser(user, jwt);
+        if (tokenRepository.revokeIfActive(storedToken.getId()) == 0) {
+            revokeAllTokens(user);
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+
+        return issueTokens(user);
     }
 
-    public void logout(String jwt) {
-        Token storedToken = tokenRepository.findByToken(jwt)
-                .orElseThrow(() -> new ResourceNotFoundException("Token not found."));
-        storedToken.setRevoked(true);
-        storedToken.setExpired(true);
-        tokenRepository.save(storedToken);
+    // Access tokens are not stored, so revoking one means recording it as revoked until it expires. The refresh token
+    // is only revoked when it belongs to the same user as the access token.
+    public void logout(String jwt, String refreshToken) {
+        VerifiedToken verified = verifyOrReject(jwt);
+        User user = userRepository.findByEmail(verified.subject()).orElse(null);
+        Token revokedToken = new Token(verified.digest(), TokenType.BEARER, true, true, user);
+        revokedToken.setExpiresAt(toLocalDateTime(verified.expiresAt()));
+        tokenRepository.save(revokedToken);
+        revocationIndex.revoke(verified.digest(), revokedToken.getExpiresAt());
+
+        if (refreshToken != null && user != null) {
+            tokenRepository.findByTokenHash(TokenDigest.of(refreshToken))
+                    .filter(token -> token.getTokenType() == TokenType.REFRESH)
+                    .filter(token -> token.getUser() != null && user.getId().equals(token.getUser().getId()))
+                    .ifPresent(token -> tokenRepository.revokeIfActive(token.getId()));
+        }
     }
 
-    public void saveUserToken(User user, String jwtToken){
-        Token token = new Token(jwtToken, false, false, user);
+    private AuthResponse issueTokens(User user) {
+        var accessToken = jwtService.generateAccessToken(user);
+        var refreshToken = jwtService.generateRefreshToken(user);
+        saveRefreshToken(user, refreshToken);
+        return AuthResponse.fromUser(user, accessToken, refreshToken);
+    }
+
+    private void saveRefreshToken(User user, String refreshToken){
+        VerifiedToken verified = jwtService.verify(refreshToken);
+        Token token = new Token(verified.digest(), TokenType.REFRESH, false, false, user);
+        token.setExpiresAt(toLocalDateTime(verified.expiresAt()));
         tokenRepository.save(token);
     }
 
-    private String generateOtp(){
-        return String.valueOf((int) (Math.random() * 900000 + 10000));
+    private VerifiedToken verifyOrReject(String jwt) {
+        try {
+            return jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid token");
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
     }
 
+    // O(1) whatever the number of sessions: outstanding access and refresh tokens all carry the old version.
     private void revokeAllTokens(User user){
-        List<Token> validUserTokens = tokenRepository.findAllValidTokenByUser(user);
-        if(validUserTokens.isEmpty()){
-            return;
-        }
+        tokenVersions.bump(user);
+    }
 
-        for(Token token : validUserTokens){
-            token.setExpired(true);
-            token.setRevoked(true);
+    // Always succeeds, so the endpoint does not reveal which emails are registered.
+    @Transactional
+    public void requestOtp(OtpRequest request) {
+        if (principalCache.get(request.email()) != null) {
+            emailService.sendOtpEmail(request.email(),
+                    verificationCodeService.issue(VerificationPurpose.LOGIN_OTP, request.email()));
         }
-        tokenRepository.saveAll(validUserTokens);
     }
 
+    // The code lives in the verification store, so checking it does not touch the users table.
     public AuthResponse verifyOtp(OtpVerificationRequest request) {
+        verificationCodeService.verify(VerificationPurpose.LOGIN_OTP, request.email(), request.otp());
         var user = userRepository.findByEmail(request.email())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        if (!request.otp().equals(user.getOtp())) {
-            throw new BadCredentialsException("Invalid OTP");
+
+        if (!user.isEnabled()) {
+            user.setEnabled(true);
+            userRepository.save(user);
+            principalCache.invalidate(user.getEmail());
         }
-        
-        // Check if OTP is expired (optional, 10 minutes expiry)
-        LocalDateTime expiryTime = user.getOtpGeneratedAt().plusMinutes(10);
-        if (LocalDateTime.now().isAfter(expiryTime)) {
-            throw new BadCredentialsException("OTP has expired");
+
+        revokeAllTokens(user);
+
+        return issueTokens(user);
+    }
+
+    // Always succeeds, so the endpoint does not reveal which emails are registered.
+    @Transactional
+    public void forgotPassword(ForgotPasswordRequest request) {
+        if (principalCache.get(request.email()) != null) {
+            emailService.sendPasswordResetEmail(request.email(),
+                    verificationCodeService.issue(VerificationPurpose.PASSWORD_RESET, request.email()));
         }
-        
-        // Enable the user and generate JWT
-        user.setEnabled(true);
+    }
+
+    // Ends every existing session: whoever knew the old password may still hold tokens.
+    public void resetPassword(ResetPasswordRequest request) {
+        verificationCodeService.verify(VerificationPurpose.PASSWORD_RESET, request.email(), request.token());
+        var user = userRepository.findByEmail(request.email())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        user.setPassword(passwordEncoder.encode(request.newPassword()));
         userRepository.save(user);
-        
-        var jwt = jwtService.generateToken(user);
-        
+        principalCache.invalidate(user.getEmail());
         revokeAllTokens(user);
-        saveUserToken(user, jwt);
-        
-        return AuthResponse.fromUser(user, jwt);
     }
-}
\ No newline at end of file
+}
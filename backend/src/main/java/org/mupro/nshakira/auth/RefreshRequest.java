@@ -0,0 +1,3 @@
+package org.mupro.nshakira.auth;
+
+public record RefreshRequest(String refreshToken) {}
@@ -1,32 +1,65 @@
 package org.mupro.nshakira.claim;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.mupro.nshakira.common.ItemType;
 import org.mupro.nshakira.user.User;
 
+import java.time.LocalDateTime;
+
+// The admin queue pages through claims of one status in id order, served by idx_claim_status_id; the pending queue
+// also has the partial index idx_claim_pending_id, created by ClaimSchemaInitializer. updatedAt changes with every
+// write and feeds the version stamp of cached reports, so bulk updates must set it too. Claims point at their item
+// by (item_type, item_id); the unique partial index uq_claim_item_approved, also created by ClaimSchemaInitializer,
+// allows at most one approved claim per item.
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_claim_status_id", columnList = "status, id"),
+        @Index(name = "idx_claim_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_claim_item", columnList = "item_type, item_id")
+})
 public class Claim {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String itemName; // "LOST" or "FOUND"
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", length = 8)
+    private ItemType itemType;
+
+    @Column(name = "item_id")
+    private Long itemId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "claimer_id")
     private User claimer;
 
     private String description;
 
-    private boolean approved = false;
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'PENDING'")
+    @Column(nullable = false, length = 16)
+    private ClaimStatus status = ClaimStatus.PENDING;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 
     public Claim() {}
 
-    public Claim(Long itemId, String itemType, User claimer, String reason, boolean approved) {
-        this.itemName = itemType;
+    public Claim(Long itemId, ItemType itemType, User claimer, String reason, ClaimStatus status) {
+        this.itemId = itemId;
+        this.itemType = itemType;
         this.claimer = claimer;
         this.description = reason;
-        this.approved = approved;
+        this.status = status;
     }
 
     // === Getters and Setters ===
@@ -39,12 +72,20 @@ public class Claim {
         this.id = id;
     }
 
-    public String getItemName() {
-        return itemName;
+    public ItemType getItemType() {
+        return itemType;
     }
 
-    public void setItemName(String itemType) {
-        this.itemName = itemType;
+    public void setItemType(ItemType itemType) {
+        this.itemType = itemType;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
     }
 
     public User getClaimer() {
@@ -63,12 +104,38 @@ public class Claim {
         this.description = reason;
     }
 
+    public ClaimStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ClaimStatus status) {
+        this.status = status;
+    }
+
     public boolean isApproved() {
-        return approved;
+        return status == ClaimStatus.APPROVED;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
-    public void setApproved(boolean approved) {
-        this.approved = approved;
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
     }
 
     // === Builder Pattern ===
@@ -79,17 +146,17 @@ public class Claim {
 
     public static class Builder {
         private Long itemId;
-        private String itemType;
+        private ItemType itemType;
         private User claimer;
         private String reason;
-        private boolean approved = false;
+        private ClaimStatus status = ClaimStatus.PENDING;
 
         public Builder itemId(Long itemId) {
             this.itemId = itemId;
             return this;
         }
 
-        public Builder itemType(String itemType) {
+        public Builder itemType(ItemType itemType) {
             this.itemType = itemType;
             return this;
         }
@@ -104,13 +171,13 @@ public class Claim {
             return this;
         }
 
-        public Builder approved(boolean approved) {
-            this.approved = approved;
+        public Builder status(ClaimStatus status) {
+            this.status = status;
             return this;
         }
 
         public Claim build() {
-            return new Claim(itemId, itemType, claimer, reason, approved);
+            return new Claim(itemId, itemType, claimer, reason, status);
         }
     }
 }
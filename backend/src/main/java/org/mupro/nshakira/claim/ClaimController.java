@@ -1,17 +1,23 @@
 package org.mupro.nshakira.claim;
 
 
-import com.itextpdf.text.DocumentException;
+import org.mupro.nshakira.claim.dto.ClaimDecisionRequest;
+import org.mupro.nshakira.claim.dto.ClaimDecisionResult;
 import org.mupro.nshakira.claim.dto.ClaimRequest;
 import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.mupro.nshakira.common.CursorPage;
+import org.mupro.nshakira.report.ReportArtifact;
+import org.mupro.nshakira.report.ReportService;
+import org.mupro.nshakira.report.ReportType;
+import org.mupro.nshakira.user.User;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -19,21 +25,37 @@ import java.util.List;
 public class ClaimController {
 
     private final ClaimService claimService;
+    private final ReportService reportService;
 
-    public ClaimController(ClaimService claimService) {
+    public ClaimController(ClaimService claimService, ReportService reportService) {
         this.claimService = claimService;
+        this.reportService = reportService;
     }
 
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/submit")
-    public ResponseEntity<String> submitClaim(@RequestBody ClaimRequest request) {
-        claimService.submitClaim(request);
+    public ResponseEntity<String> submitClaim(@RequestBody ClaimRequest request,
+                                              @AuthenticationPrincipal User claimer) {
+        claimService.submitClaim(request, claimer);
         return ResponseEntity.ok("Claim submitted successfully.");
     }
 
+    // Admin queue, oldest first. Without a status every claim is listed.
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping
+    public ResponseEntity<CursorPage<ClaimResponse>> getClaims(
+            @RequestParam(required = false) ClaimStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(claimService.getClaims(status, cursor, size));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/pending")
-    public ResponseEntity<List<ClaimResponse>> getPendingClaims() {
-        return ResponseEntity.ok(claimService.getPendingClaims());
+    public ResponseEntity<CursorPage<ClaimResponse>> getPendingClaims(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(claimService.getClaims(ClaimStatus.PENDING, cursor, size));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -44,15 +66,30 @@ public class ClaimController {
     }
 
     @PreAuthorize("hasRole('ADMIN')")
-    @GetMapping("/approved/pdf")
-    public ResponseEntity<byte[]> downloadApprovedClaimsPdf() throws DocumentException, IOException {
-        byte[] pdf = claimService.generateApprovedClaimsPdf();
+    @PutMapping("/reject/{id}")
+    public ResponseEntity<String> rejectClaim(@PathVariable Long id) {
+        claimService.rejectClaim(id);
+        return ResponseEntity.ok("Claim rejected.");
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", "approved_claims.pdf");
+    // Approves or rejects up to 1000 claims at once. Each claim gets its own outcome; conflicts do not fail the rest.
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/decisions")
+    public ResponseEntity<List<ClaimDecisionResult>> decideClaims(@RequestBody ClaimDecisionRequest request) {
+        return ResponseEntity.ok(claimService.decide(request.decisions()));
+    }
 
-        return new ResponseEntity<>(pdf, headers, HttpStatus.OK);
+    // Served from the report cache when the approved claims have not changed since it was last rendered (see
+    // /api/reports); otherwise rendered while it streams.
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/approved/pdf")
+    public ResponseEntity<?> downloadApprovedClaimsPdf() {
+        return reportService.currentArtifact(ReportType.APPROVED_CLAIMS)
+                .<ResponseEntity<?>>map(ReportArtifact::toResponseEntity)
+                .orElseGet(() -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"approved_claims.pdf\"")
+                        .body((StreamingResponseBody) claimService::writeApprovedClaimsPdf));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package org.mupro.nshakira.claim;
+
+public enum ClaimDecisionOutcome {
+    APPLIED,
+    // The claim already had the requested status; nothing was written.
+    UNCHANGED,
+    // The claim was already decided the other way.
+    ALREADY_DECIDED,
+    // The version sent no longer matches, or another admin decided the claim concurrently.
+    CONFLICT,
+    // Another claim on the same item is already approved, or is approved earlier in the same request.
+    ITEM_CLAIMED,
+    NOT_FOUND
+}
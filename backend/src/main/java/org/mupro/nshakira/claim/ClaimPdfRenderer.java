@@ -0,0 +1,86 @@
+package org.mupro.nshakira.claim;
+
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+// Renders claims as a PDF table straight onto the given stream. The table is marked incomplete and handed to the
+// document every FLUSH_EVERY_ROWS rows, which makes iText lay out those rows, write any finished pages and drop
+// them, so memory stays flat however many claims there are. Fonts are built once and shared.
+@Component
+public class ClaimPdfRenderer {
+
+    private static final int FLUSH_EVERY_ROWS = 200;
+
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
+    private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+    private static final Font BODY_FONT = new Font(Font.FontFamily.HELVETICA, 9);
+
+    private static final String[] HEADERS = {"ID", "Claimer", "Item", "Reason", "Submitted"};
+    private static final float[] WIDTHS = {1f, 3f, 1.2f, 5f, 2f};
+
+    public void render(String title, Iterator<ClaimResponse> claims, OutputStream out) throws IOException {
+        Document document = new Document(PageSize.A4, 36, 36, 36, 36);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            // The servlet container owns the response stream.
+            writer.setCloseStream(false);
+            document.open();
+
+            document.add(new Paragraph(title, TITLE_FONT));
+            document.add(Chunk.NEWLINE);
+
+            PdfPTable table = newTable();
+            int rows = 0;
+            while (claims.hasNext()) {
+                addRow(table, claims.next());
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    document.add(table);
+                }
+            }
+            table.setComplete(true);
+            document.add(table);
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Could not render claims PDF", e);
+        }
+        out.flush();
+    }
+
+    private static PdfPTable newTable() throws DocumentException {
+        PdfPTable table = new PdfPTable(WIDTHS);
+        table.setWidthPercentage(100);
+        table.setComplete(false);
+        table.setHeaderRows(1);
+        table.getDefaultCell().setHorizontalAlignment(Element.ALIGN_LEFT);
+        for (String header : HEADERS) {
+            table.addCell(new Phrase(header, HEADER_FONT));
+        }
+        return table;
+    }
+
+    private static void addRow(PdfPTable table, ClaimResponse claim) {
+        table.addCell(new Phrase(String.valueOf(claim.claimId()), BODY_FONT));
+        table.addCell(new Phrase(text(claim.claimerEmail()), BODY_FONT));
+        table.addCell(new Phrase(claim.itemType() != null ? claim.itemType().name() : "", BODY_FONT));
+        table.addCell(new Phrase(text(claim.reason()), BODY_FONT));
+        table.addCell(new Phrase(claim.createdAt() != null ? claim.createdAt().toLocalDate().toString() : "", BODY_FONT));
+    }
+
+    private static String text(String value) {
+        return value != null ? value : "";
+    }
+}
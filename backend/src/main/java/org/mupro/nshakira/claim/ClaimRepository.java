@@ -1,11 +1,97 @@
 package org.mupro.nshakira.claim;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.mupro.nshakira.common.ItemType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ClaimRepository extends JpaRepository<Claim, Long> {
-    List<Claim> findByApprovedFalse();
+    long countByStatus(ClaimStatus status);
 
-    List<Claim> findByApprovedTrue();
+    @Query("select max(c.updatedAt) from Claim c")
+    LocalDateTime findLastUpdatedAt();
+
+    // Admin queue: one statement per page joining the claimer's email, keyset-paginated on id, oldest first so the
+    // longest-waiting claims come up first. Filtered pages are served by idx_claim_status_id (and the partial
+    // idx_claim_pending_id for the pending queue), so a page costs the same at any depth.
+
+    @Query("""
+            select new org.mupro.nshakira.claim.dto.ClaimResponse(
+                c.id, u.email, c.itemId, c.itemType, c.description, c.status, c.createdAt, c.version)
+            from Claim c join c.claimer u
+            where c.status = :status
+            order by c.id
+            """)
+    List<ClaimResponse> findQueueFirstPage(@Param("status") ClaimStatus status, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.claim.dto.ClaimResponse(
+                c.id, u.email, c.itemId, c.itemType, c.description, c.status, c.createdAt, c.version)
+            from Claim c join c.claimer u
+            where c.status = :status and c.id > :id
+            order by c.id
+            """)
+    List<ClaimResponse> findQueuePageAfter(@Param("status") ClaimStatus status, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.claim.dto.ClaimResponse(
+                c.id, u.email, c.itemId, c.itemType, c.description, c.status, c.createdAt, c.version)
+            from Claim c join c.claimer u
+            order by c.id
+            """)
+    List<ClaimResponse> findAllFirstPage(Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.claim.dto.ClaimResponse(
+                c.id, u.email, c.itemId, c.itemType, c.description, c.status, c.createdAt, c.version)
+            from Claim c join c.claimer u
+            where c.id > :id
+            order by c.id
+            """)
+    List<ClaimResponse> findAllPageAfter(@Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.claim.ClaimState(c.id, c.status, c.version, c.itemType, c.itemId)
+            from Claim c where c.id in :ids
+            """)
+    List<ClaimState> findStates(@Param("ids") Collection<Long> ids);
+
+    // Served by idx_claim_item.
+    @Query("""
+            select c.itemId from Claim c
+            where c.itemType = :itemType and c.itemId in :itemIds
+              and c.status = org.mupro.nshakira.claim.ClaimStatus.APPROVED
+            """)
+    List<Long> findApprovedItemIds(@Param("itemType") ItemType itemType, @Param("itemIds") Collection<Long> itemIds);
+
+    // Decides every still-pending claim among ids in one statement. The status guard makes a concurrent decision on
+    // the same claim lose cleanly, and the version bump lets stale per-claim writes detect the change.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Claim c set c.status = :status, c.version = c.version + 1, c.updatedAt = :now
+            where c.id in :ids and c.status = org.mupro.nshakira.claim.ClaimStatus.PENDING
+            """)
+    int decidePending(@Param("ids") Collection<Long> ids,
+                      @Param("status") ClaimStatus status,
+                      @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new org.mupro.nshakira.claim.dto.ClaimResponse(
+                c.id, u.email, c.itemId, c.itemType, c.description, c.status, c.createdAt, c.version)
+            from Claim c join c.claimer u
+            order by c.id
+            """)
+    Stream<ClaimResponse> streamAll();
 }
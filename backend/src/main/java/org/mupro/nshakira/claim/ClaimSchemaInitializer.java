@@ -0,0 +1,65 @@
+package org.mupro.nshakira.claim;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Claims used to carry a boolean approved column, and the item type in item_name; carries both over into status and
+// item_type and drops the old columns. Also creates the partial indexes JPA's @Index cannot express: the one behind
+// the pending queue, and the unique one that allows a single approved claim per item. Every step is a no-op once
+// done; columns and indexes are guarded separately so a database without partial indexes still gets the columns.
+@Component
+public class ClaimSchemaInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClaimSchemaInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClaimSchemaInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (hasColumn("approved")) {
+                int migrated = jdbcTemplate.update("update claim set status = 'APPROVED' where approved");
+                jdbcTemplate.execute("alter table claim drop column approved");
+                log.info("Migrated {} approved claims to status", migrated);
+            }
+            if (hasColumn("item_name")) {
+                int migrated = jdbcTemplate.update("""
+                        update claim set item_type = upper(item_name)
+                        where item_type is null and upper(item_name) in ('LOST', 'FOUND')
+                        """);
+                jdbcTemplate.execute("alter table claim drop column item_name");
+                log.info("Migrated the item type of {} claims", migrated);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate claim columns: {}", e.getMessage());
+        }
+        try {
+            jdbcTemplate.execute("""
+                    create index if not exists idx_claim_pending_id on claim (id) where status = 'PENDING'
+                    """);
+            jdbcTemplate.execute("""
+                    create unique index if not exists uq_claim_item_approved on claim (item_type, item_id)
+                    where status = 'APPROVED'
+                    """);
+        } catch (DataAccessException e) {
+            log.warn("Could not create claim indexes: {}", e.getMessage());
+        }
+    }
+
+    private boolean hasColumn(String column) {
+        Integer columns = jdbcTemplate.queryForObject("""
+                select count(*) from information_schema.columns
+                where table_name = 'claim' and column_name = ?
+                """, Integer.class, column);
+        return columns != null && columns > 0;
+    }
+}
@@ -1,38 +1,83 @@
 package org.mupro.nshakira.claim;
 
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfWriter;
+import org.mupro.nshakira.claim.dto.ClaimDecision;
+import org.mupro.nshakira.claim.dto.ClaimDecisionResult;
 import org.mupro.nshakira.claim.dto.ClaimRequest;
 import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.mupro.nshakira.common.CursorPage;
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.common.ItemsClosedEvent;
+import org.mupro.nshakira.common.KeysetCursor;
+import org.mupro.nshakira.exception.BadRequestException;
+import org.mupro.nshakira.exception.ConflictException;
+import org.mupro.nshakira.exception.ResourceNotFoundException;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
 import org.mupro.nshakira.user.User;
-import org.mupro.nshakira.user.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class ClaimService {
 
+    private static final int PDF_CHUNK_SIZE = 1000;
+    // Bounds the IN list of the bulk update.
+    private static final int MAX_DECISIONS = 1000;
+
     private final ClaimRepository claimRepository;
-    private final UserRepository userRepository;
+    private final ClaimPdfRenderer claimPdfRenderer;
+    private final LostItemRepository lostItemRepository;
+    private final FoundItemRepository foundItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ClaimService(ClaimRepository claimRepository, UserRepository userRepository) {
+    public ClaimService(ClaimRepository claimRepository, ClaimPdfRenderer claimPdfRenderer,
+                        LostItemRepository lostItemRepository, FoundItemRepository foundItemRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.claimRepository = claimRepository;
-        this.userRepository = userRepository;
+        this.claimPdfRenderer = claimPdfRenderer;
+        this.lostItemRepository = lostItemRepository;
+        this.foundItemRepository = foundItemRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public void submitClaim(ClaimRequest request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public void submitClaim(ClaimRequest request, User user) {
+        ItemType itemType = parseItemType(request.itemType());
+        if (request.itemId() == null) {
+            throw new BadRequestException("itemId is required");
+        }
+        Optional<Boolean> closed = switch (itemType) {
+            case LOST -> lostItemRepository.findById(request.itemId()).map(LostItem::isResolved);
+            case FOUND -> foundItemRepository.findById(request.itemId()).map(FoundItem::isReturned);
+        };
+        if (closed.orElseThrow(() -> new ResourceNotFoundException("Item not found: " + request.itemId()))) {
+            throw new ConflictException("This item has already been " + closedVerb(itemType));
+        }
 
         Claim claim = Claim.builder()
                 .itemId(request.itemId())
-                .itemType(request.itemType())
+                .itemType(itemType)
                 .reason(request.reason())
                 .claimer(user)
                 .build();
@@ -40,50 +85,257 @@ public class ClaimService {
         claimRepository.save(claim);
     }
 
-    public List<ClaimResponse> getPendingClaims() {
-        return claimRepository.findByApprovedFalse().stream()
-                .map(claim -> new ClaimResponse(
-                        claim.getId(),
-                        claim.getClaimer().getEmail(),
-                        claim.getId(),
-                        claim.getItemName(),
-                        claim.getDescription(),
-                        claim.isApproved()
-                ))
-                .collect(Collectors.toList());
+    // A null status lists every claim.
+    public CursorPage<ClaimResponse> getClaims(ClaimStatus status, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ClaimResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = status == null
+                    ? claimRepository.findAllFirstPage(limit)
+                    : claimRepository.findQueueFirstPage(status, limit);
+        } else {
+            Long afterId = KeysetCursor.decode(cursor).id();
+            rows = status == null
+                    ? claimRepository.findAllPageAfter(afterId, limit)
+                    : claimRepository.findQueuePageAfter(status, afterId, limit);
+        }
+
+        return CursorPage.of(rows, pageSize, Function.identity(),
+                claim -> new KeysetCursor(null, claim.claimId()));
     }
 
+    @Transactional
     public void approveClaim(Long claimId) {
-        Claim claim = claimRepository.findById(claimId)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        decideOne(claimId, ClaimStatus.APPROVED);
+    }
 
-        claim.setApproved(true);
-        claimRepository.save(claim);
+    @Transactional
+    public void rejectClaim(Long claimId) {
+        decideOne(claimId, ClaimStatus.REJECTED);
+    }
+
+    // Applies each decision to a pending claim with one UPDATE per target status, however many claims there are.
+    // Only pending claims are decided; one that was decided meanwhile, or whose version no longer matches the one
+    // sent, is reported as a conflict rather than overwritten. Approving a claim resolves or returns its item in the
+    // same transaction, and an item never gets a second approved claim. Results come back in request order.
+    @Transactional
+    public List<ClaimDecisionResult> decide(List<ClaimDecision> decisions) {
+        validate(decisions);
+        Map<Long, ClaimState> before = states(decisions.stream().map(ClaimDecision::claimId).toList());
+
+        Map<ClaimStatus, List<Long>> toUpdate = new EnumMap<>(ClaimStatus.class);
+        Map<Long, ClaimDecisionResult> results = new HashMap<>();
+        List<ClaimState> approvals = new ArrayList<>();
+        for (ClaimDecision decision : decisions) {
+            ClaimState state = before.get(decision.claimId());
+            ClaimDecisionOutcome outcome = classify(decision, state);
+            if (outcome != null) {
+                results.put(decision.claimId(), result(decision.claimId(), outcome, state));
+            } else if (decision.status() == ClaimStatus.APPROVED && state.itemType() != null && state.itemId() != null) {
+                approvals.add(state);
+            } else {
+                toUpdate.computeIfAbsent(decision.status(), status -> new ArrayList<>()).add(decision.claimId());
+            }
+        }
+
+        // The item rows stay locked until commit, so concurrent approvals of one item queue here and each sees
+        // whatever the one before it approved. Within a request the first approval of an item wins.
+        Map<ItemType, Set<Long>> claimedItems = new EnumMap<>(ItemType.class);
+        for (ItemType type : ItemType.values()) {
+            claimedItems.put(type, lockAndFindClaimed(type, approvals));
+        }
+        for (ClaimState state : approvals) {
+            if (claimedItems.get(state.itemType()).add(state.itemId())) {
+                toUpdate.computeIfAbsent(ClaimStatus.APPROVED, status -> new ArrayList<>()).add(state.id());
+            } else {
+                results.put(state.id(), result(state.id(), ClaimDecisionOutcome.ITEM_CLAIMED, state));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<ClaimStatus, List<Long>> entry : toUpdate.entrySet()) {
+            List<Long> ids = entry.getValue();
+            int updated = claimRepository.decidePending(ids, entry.getKey(), now);
+            if (updated == ids.size()) {
+                for (Long id : ids) {
+                    ClaimState old = before.get(id);
+                    results.put(id, new ClaimDecisionResult(id, ClaimDecisionOutcome.APPLIED, entry.getKey(),
+                            old.version() + 1));
+                }
+            } else {
+                // Another admin decided some of these between our read and the update; find out which.
+                Map<Long, ClaimState> after = states(ids);
+                for (Long id : ids) {
+                    ClaimState state = after.get(id);
+                    boolean applied = state != null && state.status() == entry.getKey()
+                            && state.version() == before.get(id).version() + 1;
+                    results.put(id, result(id, applied ? ClaimDecisionOutcome.APPLIED
+                            : state == null ? ClaimDecisionOutcome.NOT_FOUND : ClaimDecisionOutcome.CONFLICT, state));
+                }
+            }
+        }
+
+        Map<ItemType, List<Long>> approvedItems = new EnumMap<>(ItemType.class);
+        for (ClaimState state : approvals) {
+            if (results.get(state.id()).outcome() == ClaimDecisionOutcome.APPLIED) {
+                approvedItems.computeIfAbsent(state.itemType(), type -> new ArrayList<>()).add(state.itemId());
+            }
+        }
+        approvedItems.forEach(this::closeItems);
+
+        return decisions.stream().map(decision -> results.get(decision.claimId())).toList();
+    }
+
+    private void decideOne(Long claimId, ClaimStatus status) {
+        ClaimDecisionResult result = decide(List.of(new ClaimDecision(claimId, status, null))).get(0);
+        switch (result.outcome()) {
+            case APPLIED, UNCHANGED -> { }
+            case NOT_FOUND -> throw new ResourceNotFoundException("Claim not found: " + claimId);
+            case ITEM_CLAIMED -> throw new ConflictException("Another claim on this item has already been approved");
+            default -> throw new ConflictException("Claim " + claimId + " has already been "
+                    + result.status().name().toLowerCase());
+        }
+    }
+
+    // Locks the items of type among approvals and returns those that already have an approved claim.
+    private Set<Long> lockAndFindClaimed(ItemType type, List<ClaimState> approvals) {
+        List<Long> itemIds = approvals.stream()
+                .filter(state -> state.itemType() == type)
+                .map(ClaimState::itemId)
+                .distinct()
+                .toList();
+        if (itemIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        switch (type) {
+            case LOST -> lostItemRepository.lockAllById(itemIds);
+            case FOUND -> foundItemRepository.lockAllById(itemIds);
+        }
+        return new HashSet<>(claimRepository.findApprovedItemIds(type, itemIds));
     }
 
-    public byte[] generateApprovedClaimsPdf() throws DocumentException, IOException{
-        List<Claim> approvedClaims = claimRepository.findByApprovedTrue();
+    private void closeItems(ItemType type, List<Long> itemIds) {
+        switch (type) {
+            case LOST -> lostItemRepository.markAllResolved(itemIds);
+            case FOUND -> foundItemRepository.markAllReturned(itemIds);
+        }
+        eventPublisher.publishEvent(new ItemsClosedEvent(type, itemIds));
+    }
 
-        Document document = new Document();
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        PdfWriter.getInstance(document, out);
+    private static ItemType parseItemType(String value) {
+        if (value != null) {
+            for (ItemType type : ItemType.values()) {
+                if (type.name().equalsIgnoreCase(value.trim())) {
+                    return type;
+                }
+            }
+        }
+        throw new BadRequestException("itemType must be LOST or FOUND");
+    }
 
-        document.open();
+    private static String closedVerb(ItemType type) {
+        return type == ItemType.LOST ? "resolved" : "returned";
+    }
 
-        Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-        Font bodyFont  =FontFactory.getFont(FontFactory.HELVETICA);
+    // Null when the decision should be written.
+    private static ClaimDecisionOutcome classify(ClaimDecision decision, ClaimState state) {
+        if (state == null) {
+            return ClaimDecisionOutcome.NOT_FOUND;
+        }
+        if (decision.version() != null && decision.version() != state.version()) {
+            return ClaimDecisionOutcome.CONFLICT;
+        }
+        if (state.status() == decision.status()) {
+            return ClaimDecisionOutcome.UNCHANGED;
+        }
+        if (state.status() != ClaimStatus.PENDING) {
+            return ClaimDecisionOutcome.ALREADY_DECIDED;
+        }
+        return null;
+    }
 
-        document.add(new Paragraph("Approved claims", headerFont));
-        document.add(Chunk.NEWLINE);
+    private static ClaimDecisionResult result(Long id, ClaimDecisionOutcome outcome, ClaimState state) {
+        return state == null
+                ? new ClaimDecisionResult(id, outcome, null, null)
+                : new ClaimDecisionResult(id, outcome, state.status(), state.version());
+    }
 
-        for(Claim claim : approvedClaims){
-            document.add(new Paragraph("ID: " + claim.getId(), bodyFont));
-            document.add(new Paragraph("Title: " + claim.getItemName(), bodyFont));
-            document.add(new Paragraph("Descrition: " + claim.getDescription(), bodyFont));
-            document.add(Chunk.NEWLINE);
+    private Map<Long, ClaimState> states(Collection<Long> ids) {
+        Map<Long, ClaimState> states = new HashMap<>();
+        for (ClaimState state : claimRepository.findStates(ids)) {
+            states.put(state.id(), state);
         }
+        return states;
+    }
+
+    private static void validate(List<ClaimDecision> decisions) {
+        if (decisions == null || decisions.isEmpty()) {
+            throw new BadRequestException("No decisions given");
+        }
+        if (decisions.size() > MAX_DECISIONS) {
+            throw new BadRequestException("At most " + MAX_DECISIONS + " decisions per request");
+        }
+        Set<Long> seen = new HashSet<>();
+        for (ClaimDecision decision : decisions) {
+            if (decision == null || decision.claimId() == null) {
+                throw new BadRequestException("Every decision needs a claimId");
+            }
+            if (decision.status() != ClaimStatus.APPROVED && decision.status() != ClaimStatus.REJECTED) {
+                throw new BadRequestException("Claim " + decision.claimId() + " must be APPROVED or REJECTED");
+            }
+            if (!seen.add(decision.claimId())) {
+                throw new BadRequestException("Claim " + decision.claimId() + " appears more than once");
+            }
+        }
+    }
+
+    // Rendered while it is written; claims are read a chunk at a time, never all at once.
+    public void writeApprovedClaimsPdf(OutputStream out) throws IOException {
+        claimPdfRenderer.render("Approved claims", chunked(ClaimStatus.APPROVED), out);
+    }
+
+    // Changes whenever any claim is written or the set of approved claims changes size, so two equal stamps mean
+    // the approved-claims report would come out the same.
+    public String approvedClaimsVersion() {
+        LocalDateTime lastUpdate = claimRepository.findLastUpdatedAt();
+        long approved = claimRepository.countByStatus(ClaimStatus.APPROVED);
+        long updatedMillis = lastUpdate == null ? 0 : lastUpdate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Long.toHexString(approved) + "-" + Long.toHexString(updatedMillis);
+    }
+
+    // Keyset pages of PDF_CHUNK_SIZE claims of one status in id order. Each page is its own short query, so no
+    // transaction or cursor is held open while the PDF is rendered and sent.
+    private Iterator<ClaimResponse> chunked(ClaimStatus status) {
+        return new Iterator<>() {
+            private Iterator<ClaimResponse> chunk = Collections.emptyIterator();
+            private Long lastId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!chunk.hasNext() && !exhausted) {
+                    Limit limit = Limit.of(PDF_CHUNK_SIZE);
+                    List<ClaimResponse> rows = lastId == null
+                            ? claimRepository.findQueueFirstPage(status, limit)
+                            : claimRepository.findQueuePageAfter(status, lastId, limit);
+                    exhausted = rows.size() < PDF_CHUNK_SIZE;
+                    if (!rows.isEmpty()) {
+                        lastId = rows.get(rows.size() - 1).claimId();
+                    }
+                    chunk = rows.iterator();
+                }
+                return chunk.hasNext();
+            }
 
-        document.close();
-        return out.toByteArray();
+            @Override
+            public ClaimResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
     }
 }
@@ -0,0 +1,5 @@
+package org.mupro.nshakira.claim;
+
+import org.mupro.nshakira.common.ItemType;
+
+public record ClaimState(Long id, ClaimStatus status, long version, ItemType itemType, Long itemId) {}
@@ -0,0 +1,7 @@
+package org.mupro.nshakira.claim;
+
+public enum ClaimStatus {
+    PENDING,
+    APPROVED,
+    REJECTED
+}
@@ -0,0 +1,10 @@
+package org.mupro.nshakira.claim.dto;
+
+import org.mupro.nshakira.claim.ClaimStatus;
+
+// status is APPROVED or REJECTED. version is optional; when sent, the decision only applies to that version.
+public record ClaimDecision(
+        Long claimId,
+        ClaimStatus status,
+        Long version) {
+}
@@ -0,0 +1,5 @@
+package org.mupro.nshakira.claim.dto;
+
+import java.util.List;
+
+public record ClaimDecisionRequest(List<ClaimDecision> decisions) {}
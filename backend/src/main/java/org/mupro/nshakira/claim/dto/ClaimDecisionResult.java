@@ -0,0 +1,12 @@
+package org.mupro.nshakira.claim.dto;
+
+import org.mupro.nshakira.claim.ClaimDecisionOutcome;
+import org.mupro.nshakira.claim.ClaimStatus;
+
+// status and version are the claim's after the request, or null when it does not exist.
+public record ClaimDecisionResult(
+        Long claimId,
+        ClaimDecisionOutcome outcome,
+        ClaimStatus status,
+        Long version) {
+}
@@ -1,10 +1,25 @@
 package org.mupro.nshakira.claim.dto;
 
+import org.mupro.nshakira.claim.ClaimStatus;
+import org.mupro.nshakira.common.ItemType;
+
+import java.time.LocalDateTime;
+
 public record ClaimResponse(
         Long claimId,
         String claimerEmail,
         Long itemId,
-        String itemType,
+        ItemType itemType,
         String reason,
+        ClaimStatus status,
+        LocalDateTime createdAt,
+        long version,
         boolean approved) {
+
+    // Used by the JPQL projections; approved is kept for clients that predate status.
+    public ClaimResponse(Long claimId, String claimerEmail, Long itemId, ItemType itemType, String reason,
+                         ClaimStatus status, LocalDateTime createdAt, long version) {
+        this(claimId, claimerEmail, itemId, itemType, reason, status, createdAt, version,
+                status == ClaimStatus.APPROVED);
+    }
 }
@@ -0,0 +1,181 @@
+package org.mupro.nshakira.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Size-bounded LRU cache with a time-to-live. Concurrent misses on the same key share a single load, and an
+// invalidation that races with a load stops that load from storing its (possibly stale) result.
+// Entries are spread over independently locked segments, each an access-ordered map with its share of maxSize, so
+// reads of different keys do not serialize on one lock. Recency is therefore tracked per segment, not cache-wide.
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 16;
+
+    private final String name;
+    private final long ttlNanos;
+
+    private final Segment<K, V>[] segments;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_ENTRIES_PER_SEGMENT)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Split maxSize exactly so the segments together never hold more than it.
+            segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0), evictions);
+        }
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = loader.apply(key);
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                if (value != null && inFlight.get(key) == load) {
+                    segment.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Stores a value that must not outlive the given ttl; the cache-wide ttl still applies when it is shorter.
+    public void put(K key, V value, Duration ttl) {
+        long nanos = Math.min(ttlNanos, ttl.toNanos());
+        if (nanos <= 0) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, System.nanoTime() + nanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+            inFlight.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        inFlight.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", name).register(registry);
+        Gauge.builder("cache.size", this, BoundedCache::size)
+                .tag("cache", name).register(registry);
+    }
+
+    private static <V> V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        private Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
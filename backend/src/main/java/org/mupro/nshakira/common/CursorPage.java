@@ -0,0 +1,23 @@
+package org.mupro.nshakira.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    public static final int MAX_SIZE = 100;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    // Rows are expected to be fetched with a limit of size + 1 so the extra row tells us whether another page exists.
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, T> mapper,
+                                          Function<E, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,6 @@
+package org.mupro.nshakira.common;
+
+public enum ItemType {
+    LOST,
+    FOUND
+}
@@ -0,0 +1,6 @@
+package org.mupro.nshakira.common;
+
+import java.util.List;
+
+// Published inside the transaction that resolved or returned the items; listeners act once it commits.
+public record ItemsClosedEvent(ItemType type, List<Long> ids) {}
@@ -0,0 +1,36 @@
+package org.mupro.nshakira.common;
+
+import org.mupro.nshakira.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position of the last row of a page in (date, id) order, passed back by clients as an opaque string.
+public record KeysetCursor(LocalDateTime date, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = (date != null ? date.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            String date = raw.substring(0, split);
+            return new KeysetCursor(
+                    date.isEmpty() ? null : LocalDateTime.parse(date),
+                    Long.valueOf(raw.substring(split + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
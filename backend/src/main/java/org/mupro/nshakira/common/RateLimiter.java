@@ -0,0 +1,78 @@
+package org.mupro.nshakira.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token-bucket rate limiter in its GCRA form: each key holds a single "theoretical arrival time" in an AtomicLong, so
+// a decision is one map lookup and one compare-and-set with no locks and no allocation once the key is known. The
+// ConcurrentHashMap is striped per bin, so unrelated keys never contend. A bucket whose arrival time has passed is
+// full again and indistinguishable from a new one, which is what evictIdle relies on.
+public class RateLimiter {
+
+    private final String name;
+    private final long periodNanos;
+    private final long intervalNanos;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Allows bursts of up to limit requests, refilled evenly over the period.
+    public RateLimiter(String name, int limit, Duration period) {
+        this.name = name;
+        this.periodNanos = period.toNanos();
+        this.intervalNanos = periodNanos / limit;
+    }
+
+    // Returns 0 when the request may proceed, otherwise the nanoseconds until the key may try again.
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + intervalNanos;
+            long wait = next - now - periodNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    // Drops buckets that have fully refilled. A request racing with the removal may update the dropped bucket and
+    // lose that one permit, which only ever errs towards letting a client through.
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ratelimit.requests", allowed, LongAdder::sum)
+                .tag("limiter", name).tag("result", "allowed").register(registry);
+        FunctionCounter.builder("ratelimit.requests", rejected, LongAdder::sum)
+                .tag("limiter", name).tag("result", "rejected").register(registry);
+        Gauge.builder("ratelimit.buckets", this, RateLimiter::size)
+                .tag("limiter", name).register(registry);
+    }
+}
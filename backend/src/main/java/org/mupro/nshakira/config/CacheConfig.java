@@ -0,0 +1,69 @@
+package org.mupro.nshakira.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.found.dto.FoundItemResponse;
+import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.mupro.nshakira.security.VerifiedToken;
+import org.mupro.nshakira.user.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedCache<Long, LostItemResponse> lostItemDetailCache(
+            @Value("${cache.item-details.max-size:10000}") int maxSize,
+            @Value("${cache.item-details.ttl:10m}") Duration ttl,
+            MeterRegistry registry) {
+        BoundedCache<Long, LostItemResponse> cache = new BoundedCache<>("lostItemDetails", maxSize, ttl);
+        cache.bindTo(registry);
+        return cache;
+    }
+
+    @Bean
+    public BoundedCache<Long, FoundItemResponse> foundItemDetailCache(
+            @Value("${cache.item-details.max-size:10000}") int maxSize,
+            @Value("${cache.item-details.ttl:10m}") Duration ttl,
+            MeterRegistry registry) {
+        BoundedCache<Long, FoundItemResponse> cache = new BoundedCache<>("foundItemDetails", maxSize, ttl);
+        cache.bindTo(registry);
+        return cache;
+    }
+
+    // Entries never outlive their token: JwtService caps each one at the token's own expiry.
+    @Bean
+    public BoundedCache<String, VerifiedToken> verifiedTokenCache(
+            @Value("${cache.verified-tokens.max-size:50000}") int maxSize,
+            @Value("${cache.verified-tokens.ttl:15m}") Duration ttl,
+            MeterRegistry registry) {
+        BoundedCache<String, VerifiedToken> cache = new BoundedCache<>("verifiedTokens", maxSize, ttl);
+        cache.bindTo(registry);
+        return cache;
+    }
+
+    @Bean
+    public BoundedCache<String, Integer> tokenVersionCache(
+            @Value("${cache.token-versions.max-size:100000}") int maxSize,
+            @Value("${cache.token-versions.ttl:30s}") Duration ttl,
+            MeterRegistry registry) {
+        BoundedCache<String, Integer> cache = new BoundedCache<>("tokenVersions", maxSize, ttl);
+        cache.bindTo(registry);
+        return cache;
+    }
+
+    // Authenticated principals by email; see PrincipalCache.
+    @Bean
+    public BoundedCache<String, User> principalUserCache(
+            @Value("${cache.principals.max-size:10000}") int maxSize,
+            @Value("${cache.principals.ttl:5m}") Duration ttl,
+            MeterRegistry registry) {
+        BoundedCache<String, User> cache = new BoundedCache<>("principals", maxSize, ttl);
+        cache.bindTo(registry);
+        return cache;
+    }
+}
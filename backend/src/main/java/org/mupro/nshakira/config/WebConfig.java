@@ -1,14 +1,23 @@
 package org.mupro.nshakira.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer{
 
+    private final Duration asyncRequestTimeout;
+
+    public WebConfig(@Value("${spring.mvc.async.request-timeout:30m}") Duration asyncRequestTimeout) {
+        this.asyncRequestTimeout = asyncRequestTimeout;
+    }
+
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry){
         registry.addMapping("/**")
@@ -19,10 +28,11 @@ public class WebConfig implements WebMvcConfigurer{
                 .maxAge(3600); // 1 hour max age
     }
 
+    // Exports and PDFs are streamed by StreamingResponseBody and can run for minutes; the container's default async
+    // timeout would cut them off part way.
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry){
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:/uploads/**");
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeout.toMillis());
     }
 
 
@@ -1,40 +1,42 @@
 package org.mupro.nshakira.email;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+// Emails are written to the outbox in the caller's transaction and sent by OutboxDispatcher after it commits, so
+// no request thread waits on the mail server and a rolled-back change never sends its email.
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final OutboxDispatcher outboxDispatcher;
 
-    @Value("${spring.mail.username}")
-    private String senderEmail;
-
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(OutboxEmailRepository outboxEmailRepository, OutboxDispatcher outboxDispatcher) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.outboxDispatcher = outboxDispatcher;
     }
 
     // Send OTP email to the user
+    @Transactional
     public void sendOtpEmail(String recipientEmail, String otp) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(senderEmail);
-        message.setTo(recipientEmail);
-        message.setSubject("Your OTP for Login");
-        message.setText("Your OTP is: " + otp + "\n\nThis OTP is valid for 10 minutes.");
-
-        mailSender.send(message);
+        enqueue(recipientEmail, "Your OTP for Login",
+                "Your OTP is: " + otp + "\n\nThis OTP is valid for 10 minutes.");
     }
 
-    // Method for password reset email (optional)
-    public void sendPasswordResetEmail(String recipientEmail, String resetLink) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(senderEmail);
-        message.setTo(recipientEmail);
-        message.setSubject("Password Reset Request");
-        message.setText("Click the link to reset your password: " + resetLink);
+    @Transactional
+    public void sendPasswordResetEmail(String recipientEmail, String resetCode) {
+        enqueue(recipientEmail, "Password Reset Request",
+                "Your password reset code is: " + resetCode + "\n\nThis code is valid for 10 minutes.");
+    }
 
-        mailSender.send(message);
+    private void enqueue(String recipient, String subject, String body) {
+        outboxEmailRepository.save(new OutboxEmail(recipient, subject, body));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wake();
+            }
+        });
     }
 }
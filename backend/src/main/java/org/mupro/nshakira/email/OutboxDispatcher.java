@@ -0,0 +1,269 @@
+package org.mupro.nshakira.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the email outbox on a small worker pool. Each worker locks a batch of due rows (skipping rows other workers
+// hold), sends them with a single mailSender.send call so the whole batch shares one SMTP connection, and records
+// the outcome in the same transaction. Failed messages are retried with exponential backoff and dead-lettered after
+// max-attempts. Delivery is at-least-once: a crash between sending and committing resends that batch.
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String senderEmail;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong deadCount = new AtomicLong();
+    private final Timer sendTimer;
+    private final Timer deliveryDelay;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter deadLettered;
+
+    public OutboxDispatcher(OutboxEmailRepository outboxEmailRepository,
+                            JavaMailSender mailSender,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry registry,
+                            @Value("${spring.mail.username:}") String senderEmail,
+                            @Value("${email.outbox.workers:2}") int workers,
+                            @Value("${email.outbox.batch-size:50}") int batchSize,
+                            @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                            @Value("${email.outbox.initial-backoff:30s}") Duration initialBackoff,
+                            @Value("${email.outbox.max-backoff:1h}") Duration maxBackoff,
+                            @Value("${email.outbox.retention:7d}") Duration retention) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.senderEmail = senderEmail;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("email.outbox.depth", pendingCount, AtomicLong::get).register(registry);
+        Gauge.builder("email.outbox.dead", deadCount, AtomicLong::get).register(registry);
+        this.sendTimer = Timer.builder("email.outbox.send")
+                .description("Time to send one batch over a single SMTP connection")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.deliveryDelay = Timer.builder("email.outbox.delivery.delay")
+                .description("Time from enqueue to successful send")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.sent = Counter.builder("email.outbox.sent").register(registry);
+        this.retried = Counter.builder("email.outbox.failed").tag("outcome", "retry").register(registry);
+        this.deadLettered = Counter.builder("email.outbox.failed").tag("outcome", "dead").register(registry);
+    }
+
+    // Starts a worker unless all of them are already busy; a busy worker rechecks for new rows before it stops.
+    public void wake() {
+        wakeRequested.set(true);
+        while (true) {
+            int active = activeWorkers.get();
+            if (active >= workers) {
+                return;
+            }
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                break;
+            }
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RuntimeException e) {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    // Picks up retries that have come due and anything enqueued while every worker was busy or the app was down.
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:5000}")
+    public void poll() {
+        pendingCount.set(outboxEmailRepository.countByStatus(OutboxStatus.PENDING));
+        deadCount.set(outboxEmailRepository.countByStatus(OutboxStatus.DEAD));
+        outboxEmailRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        if (pendingCount.get() > 0) {
+            wake();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        try {
+            boolean more;
+            do {
+                wakeRequested.set(false);
+                more = dispatchBatch() == batchSize;
+            } while (more || wakeRequested.get());
+        } catch (RuntimeException e) {
+            log.warn("Email outbox dispatch failed: {}", e.getMessage());
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    // Sends one batch of due messages and returns how many were taken.
+    int dispatchBatch() {
+        Integer taken = transactionTemplate.execute(status -> {
+            List<OutboxEmail> batch = outboxEmailRepository.lockDueBatch(LocalDateTime.now(), Limit.of(batchSize));
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+            return batch.size();
+        });
+        return taken == null ? 0 : taken;
+    }
+
+    private void send(List<OutboxEmail> batch) {
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                // A message that cannot even be built will not get better on retry.
+                deadLetter(email, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        Exception batchFailure = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+        sample.stop(sendTimer);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, OutboxEmail> entry : messages.entrySet()) {
+            OutboxEmail email = entry.getValue();
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            if (failure == null) {
+                email.setStatus(OutboxStatus.SENT);
+                email.setSentAt(now);
+                email.setAttempts(email.getAttempts() + 1);
+                email.setLastError(null);
+                sent.increment();
+                deliveryDelay.record(Duration.between(email.getCreatedAt(), now));
+            } else {
+                retryLater(email, failure, now);
+            }
+        }
+    }
+
+    private void retryLater(OutboxEmail email, Exception failure, LocalDateTime now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            deadLetter(email, failure);
+            return;
+        }
+        email.setLastError(truncate(failure.getMessage()));
+        email.setNextAttemptAt(now.plus(backoff(attempts)));
+        retried.increment();
+    }
+
+    private void deadLetter(OutboxEmail email, Exception failure) {
+        email.setStatus(OutboxStatus.DEAD);
+        email.setLastError(truncate(failure.getMessage()));
+        deadLettered.increment();
+        log.warn("Email {} to {} dead-lettered after {} attempts: {}",
+                email.getId(), email.getRecipient(), email.getAttempts(), failure.getMessage());
+    }
+
+    // initial-backoff doubled per failed attempt, capped at max-backoff, with up to 20% jitter so a mail server
+    // outage does not end in every message retrying at the same instant.
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = base <= 0 ? maxBackoff.toMillis() : Math.min(base, maxBackoff.toMillis());
+        return Duration.ofMillis(capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1));
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(senderEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        return message;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,36 @@
+package org.mupro.nshakira.email;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // A lock timeout of -2 is Hibernate's SKIP LOCKED: concurrent dispatchers each take a disjoint batch instead of
+    // queueing behind one another. Must be called inside the transaction that sends and marks the batch.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select e from OutboxEmail e
+            where e.status = org.mupro.nshakira.email.OutboxStatus.PENDING and e.nextAttemptAt <= :now
+            order by e.nextAttemptAt
+            """)
+    List<OutboxEmail> lockDueBatch(@Param("now") LocalDateTime now, Limit limit);
+
+    long countByStatus(OutboxStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEmail e where e.status = org.mupro.nshakira.email.OutboxStatus.SENT and e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,7 @@
+package org.mupro.nshakira.email;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
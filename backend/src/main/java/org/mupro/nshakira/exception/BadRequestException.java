@@ -0,0 +1,8 @@
+package org.mupro.nshakira.exception;
+
+// Invalid client input whose message is safe to return as-is.
+public class BadRequestException extends RuntimeException{
+    public BadRequestException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.mupro.nshakira.exception;
+
+public class ConflictException extends RuntimeException{
+    public ConflictException(String message){
+        super(message);
+    }
+}
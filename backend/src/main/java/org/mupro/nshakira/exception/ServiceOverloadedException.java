@@ -0,0 +1,14 @@
+package org.mupro.nshakira.exception;
+
+public class ServiceOverloadedException extends RuntimeException{
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds){
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
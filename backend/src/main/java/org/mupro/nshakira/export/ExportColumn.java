@@ -0,0 +1,5 @@
+package org.mupro.nshakira.export;
+
+import java.util.function.Function;
+
+record ExportColumn<T>(String header, Function<T, Object> value) {}
@@ -0,0 +1,49 @@
+package org.mupro.nshakira.export;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/lost-items")
+    public ResponseEntity<StreamingResponseBody> exportLostItems(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return download("lost_items", format, exportService.exportLostItems(format));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/found-items")
+    public ResponseEntity<StreamingResponseBody> exportFoundItems(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return download("found_items", format, exportService.exportFoundItems(format));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/claims")
+    public ResponseEntity<StreamingResponseBody> exportClaims(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return download("claims", format, exportService.exportClaims(format));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(String name, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,152 @@
+package org.mupro.nshakira.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.mupro.nshakira.claim.ClaimRepository;
+import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.found.dto.FoundItemResponse;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Streams whole tables as NDJSON or CSV. Rows come from a server-side cursor (JDBC fetch size) as flat projections and
+// are written as they arrive, so memory use does not depend on the number of rows.
+@Service
+public class ExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final List<ExportColumn<LostItemResponse>> LOST_ITEM_COLUMNS = List.of(
+            new ExportColumn<>("id", LostItemResponse::id),
+            new ExportColumn<>("title", LostItemResponse::title),
+            new ExportColumn<>("description", LostItemResponse::description),
+            new ExportColumn<>("location", LostItemResponse::location),
+            new ExportColumn<>("lostDate", LostItemResponse::lostDate),
+            new ExportColumn<>("resolved", LostItemResponse::isResolved),
+            new ExportColumn<>("imageUrl", LostItemResponse::imageUrl),
+            new ExportColumn<>("reporterId", r -> r.reportedBy() != null ? r.reportedBy().id() : null)
+    );
+
+    private static final List<ExportColumn<FoundItemResponse>> FOUND_ITEM_COLUMNS = List.of(
+            new ExportColumn<>("id", FoundItemResponse::getId),
+            new ExportColumn<>("title", FoundItemResponse::getTitle),
+            new ExportColumn<>("description", FoundItemResponse::getDescription),
+            new ExportColumn<>("location", FoundItemResponse::getLocation),
+            new ExportColumn<>("foundDate", FoundItemResponse::getFoundDate),
+            new ExportColumn<>("returned", FoundItemResponse::isReturned),
+            new ExportColumn<>("imagePath", FoundItemResponse::getImagePath),
+            new ExportColumn<>("reporterId", r -> r.getReportedBy() != null ? r.getReportedBy().id() : null)
+    );
+
+    private static final List<ExportColumn<ClaimResponse>> CLAIM_COLUMNS = List.of(
+            new ExportColumn<>("claimId", ClaimResponse::claimId),
+            new ExportColumn<>("claimerEmail", ClaimResponse::claimerEmail),
+            new ExportColumn<>("itemId", ClaimResponse::itemId),
+            new ExportColumn<>("itemType", ClaimResponse::itemType),
+            new ExportColumn<>("reason", ClaimResponse::reason),
+            new ExportColumn<>("status", ClaimResponse::status),
+            new ExportColumn<>("createdAt", ClaimResponse::createdAt),
+            new ExportColumn<>("approved", ClaimResponse::approved)
+    );
+
+    private final LostItemRepository lostItemRepository;
+    private final FoundItemRepository foundItemRepository;
+    private final ClaimRepository claimRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter jsonWriter;
+
+    public ExportService(LostItemRepository lostItemRepository,
+                         FoundItemRepository foundItemRepository,
+                         ClaimRepository claimRepository,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.lostItemRepository = lostItemRepository;
+        this.foundItemRepository = foundItemRepository;
+        this.claimRepository = claimRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    public StreamingResponseBody exportLostItems(ExportFormat format) {
+        return out -> export(lostItemRepository::streamAll, LOST_ITEM_COLUMNS, format, out);
+    }
+
+    public StreamingResponseBody exportFoundItems(ExportFormat format) {
+        return out -> export(foundItemRepository::streamAll, FOUND_ITEM_COLUMNS, format, out);
+    }
+
+    public StreamingResponseBody exportClaims(ExportFormat format) {
+        return out -> export(claimRepository::streamAll, CLAIM_COLUMNS, format, out);
+    }
+
+    // The response body runs after the controller has returned, so the transaction holding the cursor open is
+    // started here rather than around the controller method.
+    private <T> void export(Supplier<Stream<T>> query, List<ExportColumn<T>> columns,
+                            ExportFormat format, OutputStream out) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> rows = query.get()) {
+                    if (format == ExportFormat.CSV) {
+                        writeCsvRow(out, columns.stream().map(ExportColumn::header).toList());
+                    }
+                    int written = 0;
+                    Iterator<T> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        T row = iterator.next();
+                        if (format == ExportFormat.CSV) {
+                            writeCsvRow(out, columns.stream().map(c -> c.value().apply(row)).toList());
+                        } else {
+                            out.write(jsonWriter.writeValueAsBytes(row));
+                            out.write('\n');
+                        }
+                        if (++written % FLUSH_EVERY_ROWS == 0) {
+                            out.flush();
+                        }
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeCsvRow(OutputStream out, List<?> values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(csvField(values.get(i)));
+        }
+        line.append("\r\n");
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -6,6 +6,10 @@ import org.mupro.nshakira.user.User;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_found_item_date_id", columnList = "found_date, id"),
+        @Index(name = "idx_found_item_open_date_id", columnList = "is_returned, found_date, id")
+})
 public class FoundItem {
 
     @Id
@@ -25,7 +29,14 @@ public class FoundItem {
 
     private String filePath;
 
-    @ManyToOne
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+    // 64-bit dHash of the photo, set once the renditions have been generated.
+    private Long imageHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User reportedBy;
 
@@ -121,6 +132,30 @@ public class FoundItem {
         this.filePath = filePath;
     }
 
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
+    public String getMediumPath() {
+        return mediumPath;
+    }
+
+    public void setMediumPath(String mediumPath) {
+        this.mediumPath = mediumPath;
+    }
+
+    public Long getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(Long imageHash) {
+        this.imageHash = imageHash;
+    }
+
     // === Builder Pattern ===
 
     public static Builder builder() {
@@ -1,13 +1,15 @@
 package org.mupro.nshakira.found;
 
+import org.mupro.nshakira.common.CursorPage;
 import org.mupro.nshakira.found.dto.FoundItemRequest;
 import org.mupro.nshakira.found.dto.FoundItemResponse;
+import org.mupro.nshakira.user.User;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/found-items")
@@ -23,19 +25,22 @@ public class FoundItemController {
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<FoundItemResponse> reportFoundItem(
             @ModelAttribute FoundItemRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal User reporter) {
         try {
-            FoundItemResponse response = foundItemService.reportFoundItem(request, authentication);
+            FoundItemResponse response = foundItemService.reportFoundItem(request, reporter);
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<FoundItemResponse>> getAllFoundItems() {
-        return ResponseEntity.ok(foundItemService.getAllFoundItems());
+    public ResponseEntity<CursorPage<FoundItemResponse>> getFoundItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean openOnly) {
+        return ResponseEntity.ok(foundItemService.getFoundItems(cursor, size, openOnly));
     }
 
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -1,8 +1,144 @@
 package org.mupro.nshakira.found;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.mupro.nshakira.found.dto.FoundItemResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FoundItemRepository extends JpaRepository<FoundItem, Long> {
+    List<FoundItem> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<FoundItem> findByImageHashIsNotNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<FoundItem> findByIsReturnedFalseAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Photos without renditions, plus decodable ones processed before perceptual hashes were stored.
+    @Query("""
+            select i from FoundItem i
+            where i.filePath is not null
+              and (i.thumbnailPath is null or (i.imageHash is null and i.thumbnailPath <> i.filePath))
+            order by i.id
+            """)
+    List<FoundItem> findPendingDerivatives(Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update FoundItem i set i.thumbnailPath = :thumbnailPath, i.mediumPath = :mediumPath, i.imageHash = :imageHash
+            where i.id = :id
+            """)
+    int updateDerivatives(@Param("id") Long id,
+                          @Param("thumbnailPath") String thumbnailPath,
+                          @Param("mediumPath") String mediumPath,
+                          @Param("imageHash") Long imageHash);
+
     List<FoundItem> findByIsReturnedFalse();
+
+    // Row locks held until the caller's transaction ends, taken in id order so concurrent callers cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from FoundItem i where i.id in :ids order by i.id")
+    List<FoundItem> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update FoundItem i set i.isReturned = true where i.id in :ids")
+    int markAllReturned(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.id = :id
+            """)
+    Optional<FoundItemResponse> findResponseById(@Param("id") Long id);
+
+    // Listings select only the response columns plus the reporter's id and name, in a single statement per page.
+    // Keyset pagination on (foundDate, id), newest first. Served by idx_found_item_date_id / idx_found_item_open_date_id.
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.foundDate is not null
+            order by i.foundDate desc, i.id desc
+            """)
+    List<FoundItemResponse> findFirstPage(Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.foundDate < :foundDate or (i.foundDate = :foundDate and i.id < :id)
+            order by i.foundDate desc, i.id desc
+            """)
+    List<FoundItemResponse> findPageAfter(@Param("foundDate") LocalDateTime foundDate, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.isReturned = false and i.foundDate is not null
+            order by i.foundDate desc, i.id desc
+            """)
+    List<FoundItemResponse> findOpenFirstPage(Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.isReturned = false
+              and (i.foundDate < :foundDate or (i.foundDate = :foundDate and i.id < :id))
+            order by i.foundDate desc, i.id desc
+            """)
+    List<FoundItemResponse> findOpenPageAfter(@Param("foundDate") LocalDateTime foundDate, @Param("id") Long id, Limit limit);
+
+    // Rows without a foundDate (reported before it was defaulted) follow every dated row, newest id first. Served by
+    // the same indexes, with the date column matched as null.
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.foundDate is null and i.id < :id
+            order by i.id desc
+            """)
+    List<FoundItemResponse> findUndatedPageAfter(@Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            where i.isReturned = false and i.foundDate is null and i.id < :id
+            order by i.id desc
+            """)
+    List<FoundItemResponse> findOpenUndatedPageAfter(@Param("id") Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new org.mupro.nshakira.found.dto.FoundItemResponse(
+                i.id, i.title, i.description, i.location, i.foundDate, i.isReturned, i.filePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from FoundItem i left join i.reportedBy u
+            order by i.id
+            """)
+    Stream<FoundItemResponse> streamAll();
 }
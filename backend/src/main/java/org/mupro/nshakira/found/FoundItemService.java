@@ -1,69 +1,123 @@
 package org.mupro.nshakira.found;
 
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.common.CursorPage;
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.common.ItemsClosedEvent;
+import org.mupro.nshakira.common.KeysetCursor;
+import org.mupro.nshakira.image.ImageDerivativeService;
 import org.mupro.nshakira.found.dto.FoundItemRequest;
 import org.mupro.nshakira.found.dto.FoundItemResponse;
+import org.mupro.nshakira.match.MatchService;
+import org.mupro.nshakira.search.ItemSearchService;
+import org.mupro.nshakira.storage.ImageStorageService;
+import org.mupro.nshakira.user.ReporterSummary;
 import org.mupro.nshakira.user.User;
-import org.mupro.nshakira.user.UserRepository;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class FoundItemService {
 
     private final FoundItemRepository repository;
-    private final UserRepository userRepository;
-
-    public FoundItemService(FoundItemRepository repository, UserRepository userRepository) {
+    private final ItemSearchService itemSearchService;
+    private final MatchService matchService;
+    private final BoundedCache<Long, FoundItemResponse> detailCache;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+
+    public FoundItemService(FoundItemRepository repository,
+                            ItemSearchService itemSearchService, MatchService matchService,
+                            BoundedCache<Long, FoundItemResponse> detailCache,
+                            ImageStorageService imageStorageService,
+                            ImageDerivativeService imageDerivativeService) {
         this.repository = repository;
-        this.userRepository = userRepository;
+        this.itemSearchService = itemSearchService;
+        this.matchService = matchService;
+        this.detailCache = detailCache;
+        this.imageStorageService = imageStorageService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
-    public FoundItemResponse reportFoundItem(FoundItemRequest request, Authentication authentication) throws IOException {
-        String email = authentication.getName();
-        User reporter = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        String fileName = null;
-        MultipartFile image = request.getImage();
-        if (image != null && !image.isEmpty()) {
-            fileName = System.currentTimeMillis() + "_" + image.getOriginalFilename();
-            Path path = Paths.get("uploads", fileName);
-            Files.createDirectories(path.getParent());
-            Files.write(path, image.getBytes());
-        }
+    // The reporter is the authenticated principal, already loaded (or cached) by the auth filter.
+    public FoundItemResponse reportFoundItem(FoundItemRequest request, User reporter) throws IOException {
+
+        String imagePath = imageStorageService.store(request.getImage());
 
         FoundItem item = new FoundItem(
                 request.getTitle(),
                 request.getDescription(),
                 request.getLocation(),
-                request.getFoundDate(),
-                fileName != null ? "/uploads/" + fileName : null
+                request.getFoundDate() != null ? request.getFoundDate() : LocalDateTime.now(),
+                imagePath
         );
         item.setReportedBy(reporter);
 
-        FoundItem saved = repository.save(item);
+        FoundItem saved;
+        try {
+            saved = repository.save(item);
+        } catch (RuntimeException e) {
+            // The row was never written, so nothing refers to the stored image.
+            releaseImage(imagePath, e);
+            throw e;
+        }
+        itemSearchService.indexFoundItem(saved);
+        matchService.onFoundItemSaved(saved);
+        imageDerivativeService.submit(ItemType.FOUND, saved.getId(), saved.getFilePath());
         return mapToResponse(saved);
     }
 
-    public List<FoundItemResponse> getAllFoundItems() {
-        return repository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private void releaseImage(String imagePath, RuntimeException cause) {
+        try {
+            imageStorageService.release(imagePath);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    public CursorPage<FoundItemResponse> getFoundItems(String cursor, int size, boolean openOnly) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        List<FoundItemResponse> rows;
+        if (after == null || after.date() != null) {
+            if (after == null) {
+                rows = openOnly ? repository.findOpenFirstPage(limit) : repository.findFirstPage(limit);
+            } else {
+                rows = openOnly
+                        ? repository.findOpenPageAfter(after.date(), after.id(), limit)
+                        : repository.findPageAfter(after.date(), after.id(), limit);
+            }
+            if (rows.size() <= pageSize) {
+                // Dated rows are exhausted; fill the page from the undated ones.
+                rows = new ArrayList<>(rows);
+                rows.addAll(undatedPageAfter(Long.MAX_VALUE, openOnly, Limit.of(pageSize + 1 - rows.size())));
+            }
+        } else {
+            rows = undatedPageAfter(after.id(), openOnly, limit);
+        }
+
+        return CursorPage.of(rows, pageSize, Function.identity(),
+                item -> new KeysetCursor(item.getFoundDate(), item.getId()));
+    }
+
+    private List<FoundItemResponse> undatedPageAfter(Long id, boolean openOnly, Limit limit) {
+        return openOnly
+                ? repository.findOpenUndatedPageAfter(id, limit)
+                : repository.findUndatedPageAfter(id, limit);
     }
 
     public FoundItemResponse getFoundItemById(Long id) {
-        FoundItem item = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Found item not found with id: " + id));
-        return mapToResponse(item);
+        return detailCache.get(id, key -> repository.findResponseById(key)
+                .orElseThrow(() -> new RuntimeException("Found item not found with id: " + key)));
     }
 
     private FoundItemResponse mapToResponse(FoundItem item) {
@@ -75,7 +129,9 @@ public class FoundItemService {
                 item.getFoundDate(),
                 item.isReturned(),
                 item.getFilePath(),
-                item.getReportedBy()
+                item.getThumbnailPath(),
+                item.getMediumPath(),
+                ReporterSummary.of(item.getReportedBy())
         );
     }
 
@@ -86,6 +142,21 @@ public class FoundItemService {
 
         item.setReturned(true);
         repository.save(item);
+        evict(itemId);
+    }
+
+    // Approving a claim closes its item in bulk; the caches and indexes catch up once that commits.
+    @TransactionalEventListener
+    public void onItemsClosed(ItemsClosedEvent event) {
+        if (event.type() == ItemType.FOUND) {
+            event.ids().forEach(this::evict);
+        }
+    }
+
+    private void evict(Long itemId) {
+        detailCache.invalidate(itemId);
+        itemSearchService.markClosed(ItemType.FOUND, itemId);
+        matchService.onItemClosed(ItemType.FOUND, itemId);
     }
 }
 
@@ -1,6 +1,6 @@
 package org.mupro.nshakira.found.dto;
 
-import org.mupro.nshakira.user.User;
+import org.mupro.nshakira.user.ReporterSummary;
 
 import java.time.LocalDateTime;
 
@@ -12,10 +12,13 @@ public class FoundItemResponse {
     private LocalDateTime foundDate;
     private boolean isReturned = false;
     private String imagePath;
-    private User reportedBy;
+    private String thumbnailPath;
+    private String mediumPath;
+    private ReporterSummary reportedBy;
 
     public FoundItemResponse(Long id, String title, String description, String location,
-                             LocalDateTime foundDate, boolean isReturned, String imagePath, User reportedBy) {
+                             LocalDateTime foundDate, boolean isReturned, String imagePath,
+                             String thumbnailPath, String mediumPath, ReporterSummary reportedBy) {
         this.id = id;
         this.title = title;
         this.description = description;
@@ -23,9 +26,19 @@ public class FoundItemResponse {
         this.foundDate = foundDate;
         this.isReturned = isReturned;
         this.imagePath = imagePath;
+        this.thumbnailPath = thumbnailPath;
+        this.mediumPath = mediumPath;
         this.reportedBy = reportedBy;
     }
 
+    // Flat constructor used by the JPQL projections in FoundItemRepository
+    public FoundItemResponse(Long id, String title, String description, String location,
+                             LocalDateTime foundDate, boolean isReturned, String imagePath,
+                             String thumbnailPath, String mediumPath, Long reporterId, String reporterName) {
+        this(id, title, description, location, foundDate, isReturned, imagePath, thumbnailPath, mediumPath,
+                reporterId == null ? null : new ReporterSummary(reporterId, reporterName));
+    }
+
     // Getters only
 
     public Long getId() {
@@ -56,7 +69,15 @@ public class FoundItemResponse {
         return imagePath;
     }
 
-    public User getReportedBy() {
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public String getMediumPath() {
+        return mediumPath;
+    }
+
+    public ReporterSummary getReportedBy() {
         return reportedBy;
     }
 }
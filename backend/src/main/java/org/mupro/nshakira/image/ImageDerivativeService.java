@@ -0,0 +1,222 @@
+package org.mupro.nshakira.image;
+
+import jakarta.annotation.PreDestroy;
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.found.dto.FoundItemResponse;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.mupro.nshakira.storage.ImageStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Generates thumbnail and medium JPEG renditions of item photos, plus their perceptual hash, on a small bounded worker
+// pool. Submitting never blocks the caller: when the queue is full the job is dropped and the periodic backfill picks
+// the item up later from the rows that are still unprocessed.
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final int THUMBNAIL_SIZE = 320;
+    private static final int MEDIUM_SIZE = 1024;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final ImageStorageService imageStorageService;
+    private final LostItemRepository lostItemRepository;
+    private final FoundItemRepository foundItemRepository;
+    private final BoundedCache<Long, LostItemResponse> lostItemDetailCache;
+    private final BoundedCache<Long, FoundItemResponse> foundItemDetailCache;
+    private final SimilarImageService similarImageService;
+
+    public ImageDerivativeService(ImageStorageService imageStorageService,
+                                  LostItemRepository lostItemRepository,
+                                  FoundItemRepository foundItemRepository,
+                                  BoundedCache<Long, LostItemResponse> lostItemDetailCache,
+                                  BoundedCache<Long, FoundItemResponse> foundItemDetailCache,
+                                  SimilarImageService similarImageService,
+                                  @Value("${image.derivatives.workers:2}") int workers,
+                                  @Value("${image.derivatives.queue-capacity:100}") int queueCapacity) {
+        this.imageStorageService = imageStorageService;
+        this.lostItemRepository = lostItemRepository;
+        this.foundItemRepository = foundItemRepository;
+        this.lostItemDetailCache = lostItemDetailCache;
+        this.foundItemDetailCache = foundItemDetailCache;
+        this.similarImageService = similarImageService;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Returns false when the job could not be queued; the backfill will retry it.
+    public boolean submit(ItemType type, Long itemId, String imagePath) {
+        if (imagePath == null) {
+            return true;
+        }
+        String key = type + ":" + itemId;
+        if (!pending.add(key)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(type, itemId, imagePath);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            log.debug("Derivative queue full, deferring {} item {}", type, itemId);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${image.derivatives.backfill-interval:60000}")
+    public void backfill() {
+        int batch = executor.getQueue().remainingCapacity();
+        if (batch == 0) {
+            return;
+        }
+        for (LostItem item : lostItemRepository.findPendingDerivatives(Limit.of(batch))) {
+            if (!submit(ItemType.LOST, item.getId(), item.getImagePath())) {
+                return;
+            }
+        }
+        for (FoundItem item : foundItemRepository.findPendingDerivatives(Limit.of(batch))) {
+            if (!submit(ItemType.FOUND, item.getId(), item.getFilePath())) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(ItemType type, Long itemId, String imagePath) {
+        BufferedImage medium;
+        try {
+            medium = ImageResizer.fit(
+                    ImageResizer.read(imageStorageService.resolve(imagePath), MEDIUM_SIZE), MEDIUM_SIZE);
+        } catch (IIOException | IllegalArgumentException e) {
+            // Undecodable images, formats ImageIO cannot read and paths outside the upload directory fall back to the
+            // original so they are not retried.
+            log.warn("Cannot decode image of {} item {}, using the original: {}", type, itemId, e.getMessage());
+            update(type, itemId, imagePath, imagePath, imagePath, null);
+            return;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read image of {} item {}, will retry: {}", type, itemId, e.getMessage());
+            return;
+        }
+
+        // Any failure from here on is the disk or the store, not the image: leave the columns null for the backfill.
+        BufferedImage thumbnail = ImageResizer.fit(medium, THUMBNAIL_SIZE);
+        long imageHash = PerceptualHash.dHash(medium);
+        String mediumPath;
+        String thumbnailPath;
+        try {
+            mediumPath = writeJpeg(medium);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not store derivatives of {} item {}, will retry: {}", type, itemId, e.getMessage());
+            return;
+        }
+        try {
+            thumbnailPath = writeJpeg(thumbnail);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not store derivatives of {} item {}, will retry: {}", type, itemId, e.getMessage());
+            release(mediumPath);
+            return;
+        }
+
+        update(type, itemId, imagePath, thumbnailPath, mediumPath, imageHash);
+        similarImageService.indexImage(type, itemId, imageHash);
+    }
+
+    // Each stored rendition holds one reference to its blob; the fallback reuses the original, which holds none of its
+    // own. References held by renditions being replaced, or by new ones whose item is gone, are released.
+    private void update(ItemType type, Long itemId, String imagePath,
+                        String thumbnailPath, String mediumPath, Long imageHash) {
+        List<String> unreferenced = new ArrayList<>();
+        int updated;
+        if (type == ItemType.LOST) {
+            lostItemRepository.findById(itemId).ifPresent(item -> {
+                unreferenced.add(item.getThumbnailPath());
+                unreferenced.add(item.getMediumPath());
+            });
+            updated = lostItemRepository.updateDerivatives(itemId, thumbnailPath, mediumPath, imageHash);
+            lostItemDetailCache.invalidate(itemId);
+        } else {
+            foundItemRepository.findById(itemId).ifPresent(item -> {
+                unreferenced.add(item.getThumbnailPath());
+                unreferenced.add(item.getMediumPath());
+            });
+            updated = foundItemRepository.updateDerivatives(itemId, thumbnailPath, mediumPath, imageHash);
+            foundItemDetailCache.invalidate(itemId);
+        }
+        if (updated == 0) {
+            unreferenced.clear();
+            unreferenced.add(thumbnailPath);
+            unreferenced.add(mediumPath);
+        }
+        for (String path : unreferenced) {
+            if (path != null && !path.equals(imagePath)) {
+                release(path);
+            }
+        }
+    }
+
+    private void release(String path) {
+        try {
+            imageStorageService.release(path);
+        } catch (IOException e) {
+            log.warn("Could not release {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String writeJpeg(BufferedImage image) throws IOException {
+        Path temp = imageStorageService.newTempFile();
+        try {
+            ImageResizer.writeJpeg(image, temp, JPEG_QUALITY);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return imageStorageService.store(temp, "jpg");
+    }
+}
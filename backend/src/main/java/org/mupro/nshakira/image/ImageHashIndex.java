@@ -0,0 +1,195 @@
+package org.mupro.nshakira.image;
+
+import org.mupro.nshakira.common.ItemType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Multi-index hashing over 64-bit perceptual hashes. Each hash is split into four 16-bit chunks and every chunk gets
+// its own table. Two hashes within distance r must agree on some chunk to within r / 4 bits (pigeonhole), so a query
+// only probes the few chunk values that close to its own and verifies the full distance on what it finds, instead
+// of comparing against every stored hash.
+public class ImageHashIndex {
+
+    public static final int MAX_DISTANCE = 15;
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    // All 16-bit masks ordered by popcount; MASKS_UP_TO[s] is how many of them have at most s bits set.
+    private static final int[] MASKS;
+    private static final int[] MASKS_UP_TO = new int[MAX_DISTANCE / CHUNKS + 1];
+
+    static {
+        Integer[] all = new Integer[1 << CHUNK_BITS];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        Arrays.sort(all, Comparator.comparingInt(Integer::bitCount));
+        MASKS = Arrays.stream(all).mapToInt(Integer::intValue).toArray();
+        for (int mask : MASKS) {
+            int bits = Integer.bitCount(mask);
+            for (int s = bits; s < MASKS_UP_TO.length; s++) {
+                MASKS_UP_TO[s]++;
+            }
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<Integer, int[]>> tables = new ArrayList<>(CHUNKS);
+    private final Map<ItemType, Map<Long, Integer>> ordinals = new EnumMap<>(ItemType.class);
+
+    private long[] hashes = new long[1024];
+    private long[] itemIds = new long[1024];
+    private ItemType[] itemTypes = new ItemType[1024];
+    private final BitSet live = new BitSet();
+    private int docCount;
+    private int liveCount;
+
+    public ImageHashIndex() {
+        for (int c = 0; c < CHUNKS; c++) {
+            tables.add(new HashMap<>());
+        }
+        for (ItemType type : ItemType.values()) {
+            ordinals.put(type, new HashMap<>());
+        }
+    }
+
+    public void upsert(ItemType type, long itemId, long hash) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(type).get(itemId);
+            if (previous != null) {
+                if (hashes[previous] == hash) {
+                    return;
+                }
+                tombstone(previous);
+            }
+
+            int doc = docCount++;
+            ensureCapacity(doc + 1);
+            hashes[doc] = hash;
+            itemIds[doc] = itemId;
+            itemTypes[doc] = type;
+            live.set(doc);
+            liveCount++;
+            ordinals.get(type).put(itemId, doc);
+
+            for (int c = 0; c < CHUNKS; c++) {
+                tables.get(c).merge(chunk(hash, c), new int[] {1, doc}, ImageHashIndex::append);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(ItemType type, long itemId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = ordinals.get(type).remove(itemId);
+            if (doc != null) {
+                tombstone(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Long hashOf(ItemType type, long itemId) {
+        lock.readLock().lock();
+        try {
+            Integer doc = ordinals.get(type).get(itemId);
+            return doc == null ? null : hashes[doc];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Items whose hash is within maxDistance of the given one, nearest first.
+    public List<SimilarImage> search(long hash, int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and " + MAX_DISTANCE);
+        }
+        int probes = MASKS_UP_TO[maxDistance / CHUNKS];
+
+        lock.readLock().lock();
+        try {
+            BitSet seen = new BitSet();
+            List<SimilarImage> found = new ArrayList<>();
+            for (int c = 0; c < CHUNKS; c++) {
+                Map<Integer, int[]> table = tables.get(c);
+                int value = chunk(hash, c);
+                for (int p = 0; p < probes; p++) {
+                    int[] bucket = table.get(value ^ MASKS[p]);
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int i = 1; i <= bucket[0]; i++) {
+                        int doc = bucket[i];
+                        if (seen.get(doc) || !live.get(doc)) {
+                            continue;
+                        }
+                        seen.set(doc);
+                        int distance = PerceptualHash.distance(hash, hashes[doc]);
+                        if (distance <= maxDistance) {
+                            found.add(new SimilarImage(itemTypes[doc], itemIds[doc], distance));
+                        }
+                    }
+                }
+            }
+            found.sort(Comparator.comparingInt(SimilarImage::distance));
+            return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int chunk(long hash, int c) {
+        return (int) (hash >>> (c * CHUNK_BITS)) & CHUNK_MASK;
+    }
+
+    // Buckets are int arrays whose first slot holds the number of ordinals that follow.
+    private static int[] append(int[] bucket, int[] single) {
+        int size = bucket[0];
+        if (size + 1 == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[size + 1] = single[1];
+        bucket[0] = size + 1;
+        return bucket;
+    }
+
+    private void tombstone(int doc) {
+        if (live.get(doc)) {
+            live.clear(doc);
+            liveCount--;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > hashes.length) {
+            int newLength = Math.max(capacity, hashes.length * 2);
+            hashes = Arrays.copyOf(hashes, newLength);
+            itemIds = Arrays.copyOf(itemIds, newLength);
+            itemTypes = Arrays.copyOf(itemTypes, newLength);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.mupro.nshakira.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+// dHash: the image is shrunk to 9x8 grey pixels and each bit records whether a pixel is brighter than its right-hand
+// neighbour. Re-encoding, rescaling and mild colour changes flip few bits, so near-duplicate photos end up a small
+// Hamming distance apart.
+public final class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private PerceptualHash() {}
+
+    public static long dHash(BufferedImage image) {
+        BufferedImage small = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = small.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, WIDTH, HEIGHT, null);
+        } finally {
+            g.dispose();
+        }
+
+        int[] pixels = small.getRaster().getPixels(0, 0, WIDTH, HEIGHT, (int[]) null);
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (pixels[y * WIDTH + x] > pixels[y * WIDTH + x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
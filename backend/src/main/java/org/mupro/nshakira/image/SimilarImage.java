@@ -0,0 +1,5 @@
+package org.mupro.nshakira.image;
+
+import org.mupro.nshakira.common.ItemType;
+
+public record SimilarImage(ItemType itemType, Long itemId, int distance) {}
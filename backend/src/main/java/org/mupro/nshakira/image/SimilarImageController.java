@@ -0,0 +1,41 @@
+package org.mupro.nshakira.image;
+
+import org.mupro.nshakira.common.ItemType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/images/similar")
+public class SimilarImageController {
+
+    private final SimilarImageService similarImageService;
+
+    public SimilarImageController(SimilarImageService similarImageService) {
+        this.similarImageService = similarImageService;
+    }
+
+    @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
+    @GetMapping("/lost/{id}")
+    public ResponseEntity<List<SimilarImage>> getSimilarToLostItem(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int maxDistance,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(similarImageService.findSimilar(ItemType.LOST, id, maxDistance, limit));
+    }
+
+    @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
+    @GetMapping("/found/{id}")
+    public ResponseEntity<List<SimilarImage>> getSimilarToFoundItem(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int maxDistance,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(similarImageService.findSimilar(ItemType.FOUND, id, maxDistance, limit));
+    }
+}
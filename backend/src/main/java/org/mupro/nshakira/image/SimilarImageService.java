@@ -0,0 +1,82 @@
+package org.mupro.nshakira.image;
+
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.exception.BadRequestException;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class SimilarImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarImageService.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MAX_RESULTS = 100;
+
+    private final ImageHashIndex index = new ImageHashIndex();
+
+    private final LostItemRepository lostItemRepository;
+    private final FoundItemRepository foundItemRepository;
+
+    public SimilarImageService(LostItemRepository lostItemRepository, FoundItemRepository foundItemRepository) {
+        this.lostItemRepository = lostItemRepository;
+        this.foundItemRepository = foundItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        List<LostItem> lostBatch;
+        do {
+            lostBatch = lostItemRepository.findByImageHashIsNotNullAndIdGreaterThanOrderByIdAsc(
+                    lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (LostItem item : lostBatch) {
+                index.upsert(ItemType.LOST, item.getId(), item.getImageHash());
+                lastId = item.getId();
+            }
+        } while (lostBatch.size() == REBUILD_BATCH_SIZE);
+
+        lastId = 0;
+        List<FoundItem> foundBatch;
+        do {
+            foundBatch = foundItemRepository.findByImageHashIsNotNullAndIdGreaterThanOrderByIdAsc(
+                    lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (FoundItem item : foundBatch) {
+                index.upsert(ItemType.FOUND, item.getId(), item.getImageHash());
+                lastId = item.getId();
+            }
+        } while (foundBatch.size() == REBUILD_BATCH_SIZE);
+
+        log.info("Image hash index built with {} photos", index.size());
+    }
+
+    public void indexImage(ItemType type, Long itemId, long hash) {
+        index.upsert(type, itemId, hash);
+    }
+
+    // Other items whose photo is within maxDistance bits of this item's photo; empty while it has not been hashed.
+    public List<SimilarImage> findSimilar(ItemType type, Long itemId, int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > ImageHashIndex.MAX_DISTANCE) {
+            throw new BadRequestException("maxDistance must be between 0 and " + ImageHashIndex.MAX_DISTANCE);
+        }
+        Long hash = index.hashOf(type, itemId);
+        if (hash == null) {
+            return List.of();
+        }
+        int capped = Math.max(1, Math.min(limit, MAX_RESULTS));
+        return index.search(hash, maxDistance, capped + 1).stream()
+                .filter(hit -> hit.itemType() != type || !hit.itemId().equals(itemId))
+                .limit(capped)
+                .toList();
+    }
+}
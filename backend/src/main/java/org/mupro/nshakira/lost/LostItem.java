@@ -6,6 +6,10 @@ import org.mupro.nshakira.user.User;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_lost_item_date_id", columnList = "lost_date, id"),
+        @Index(name = "idx_lost_item_open_date_id", columnList = "is_resolved, lost_date, id")
+})
 public class LostItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,11 +25,18 @@ public class LostItem {
     @Column(name = "image_path")
     private String imagePath;
 
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+    // 64-bit dHash of the photo, set once the renditions have been generated.
+    private Long imageHash;
+
     private LocalDateTime lostDate;
 
     private boolean isResolved = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User reportedBy;
 
@@ -124,6 +135,30 @@ public class LostItem {
         this.imagePath = imagePath;
     }
 
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
+    public String getMediumPath() {
+        return mediumPath;
+    }
+
+    public void setMediumPath(String mediumPath) {
+        this.mediumPath = mediumPath;
+    }
+
+    public Long getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(Long imageHash) {
+        this.imageHash = imageHash;
+    }
+
     // === Builder Pattern ===
 
     public static Builder builder() {
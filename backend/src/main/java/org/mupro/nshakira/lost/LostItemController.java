@@ -1,13 +1,15 @@
 package org.mupro.nshakira.lost;
 
+import org.mupro.nshakira.common.CursorPage;
 import org.mupro.nshakira.lost.dto.LostItemRequest;
 import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.mupro.nshakira.user.User;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/lost-items")
@@ -23,19 +25,22 @@ public class LostItemController {
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<LostItemResponse> reportLostItem(
             @ModelAttribute LostItemRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal User reporter) {
         try {
-            LostItemResponse response = lostItemService.reportLostItem(request, authentication);
+            LostItemResponse response = lostItemService.reportLostItem(request, reporter);
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @GetMapping
-    public ResponseEntity<List<LostItemResponse>> getAllLostItems() {
-        return ResponseEntity.ok(lostItemService.getAllLostItems());
+    public ResponseEntity<CursorPage<LostItemResponse>> getLostItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean openOnly) {
+        return ResponseEntity.ok(lostItemService.getLostItems(cursor, size, openOnly));
     }
 
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -1,9 +1,145 @@
 package org.mupro.nshakira.lost;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LostItemRepository extends JpaRepository<LostItem, Long> {
+    List<LostItem> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<LostItem> findByImageHashIsNotNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<LostItem> findByIsResolvedFalseAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Photos without renditions, plus decodable ones processed before perceptual hashes were stored.
+    @Query("""
+            select i from LostItem i
+            where i.imagePath is not null
+              and (i.thumbnailPath is null or (i.imageHash is null and i.thumbnailPath <> i.imagePath))
+            order by i.id
+            """)
+    List<LostItem> findPendingDerivatives(Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update LostItem i set i.thumbnailPath = :thumbnailPath, i.mediumPath = :mediumPath, i.imageHash = :imageHash
+            where i.id = :id
+            """)
+    int updateDerivatives(@Param("id") Long id,
+                          @Param("thumbnailPath") String thumbnailPath,
+                          @Param("mediumPath") String mediumPath,
+                          @Param("imageHash") Long imageHash);
+
     List<LostItem> findByIsResolvedFalse();
+
+    // Row locks held until the caller's transaction ends, taken in id order so concurrent callers cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from LostItem i where i.id in :ids order by i.id")
+    List<LostItem> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update LostItem i set i.isResolved = true where i.id in :ids")
+    int markAllResolved(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.id = :id
+            """)
+    Optional<LostItemResponse> findResponseById(@Param("id") Long id);
+
+    // Listings select only the response columns plus the reporter's id and name, in a single statement per page.
+    // Keyset pagination on (lostDate, id), newest first. Served by idx_lost_item_date_id / idx_lost_item_open_date_id.
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.lostDate is not null
+            order by i.lostDate desc, i.id desc
+            """)
+    List<LostItemResponse> findFirstPage(Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.lostDate < :lostDate or (i.lostDate = :lostDate and i.id < :id)
+            order by i.lostDate desc, i.id desc
+            """)
+    List<LostItemResponse> findPageAfter(@Param("lostDate") LocalDateTime lostDate, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.isResolved = false and i.lostDate is not null
+            order by i.lostDate desc, i.id desc
+            """)
+    List<LostItemResponse> findOpenFirstPage(Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.isResolved = false
+              and (i.lostDate < :lostDate or (i.lostDate = :lostDate and i.id < :id))
+            order by i.lostDate desc, i.id desc
+            """)
+    List<LostItemResponse> findOpenPageAfter(@Param("lostDate") LocalDateTime lostDate, @Param("id") Long id, Limit limit);
+
+    // Rows without a lostDate (reported before it was defaulted) follow every dated row, newest id first. Served by
+    // the same indexes, with the date column matched as null.
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.lostDate is null and i.id < :id
+            order by i.id desc
+            """)
+    List<LostItemResponse> findUndatedPageAfter(@Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            where i.isResolved = false and i.lostDate is null and i.id < :id
+            order by i.id desc
+            """)
+    List<LostItemResponse> findOpenUndatedPageAfter(@Param("id") Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new org.mupro.nshakira.lost.dto.LostItemResponse(
+                i.id, i.title, i.description, i.location, i.lostDate, i.isResolved, i.imagePath,
+                i.thumbnailPath, i.mediumPath, u.id, u.name)
+            from LostItem i left join i.reportedBy u
+            order by i.id
+            """)
+    Stream<LostItemResponse> streamAll();
 }
@@ -1,69 +1,123 @@
 package org.mupro.nshakira.lost;
 
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.common.CursorPage;
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.common.ItemsClosedEvent;
+import org.mupro.nshakira.common.KeysetCursor;
+import org.mupro.nshakira.image.ImageDerivativeService;
 import org.mupro.nshakira.lost.dto.LostItemRequest;
 import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.mupro.nshakira.match.MatchService;
+import org.mupro.nshakira.search.ItemSearchService;
+import org.mupro.nshakira.storage.ImageStorageService;
+import org.mupro.nshakira.user.ReporterSummary;
 import org.mupro.nshakira.user.User;
-import org.mupro.nshakira.user.UserRepository;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class LostItemService {
 
     private final LostItemRepository repository;
-    private final UserRepository userRepository;
+    private final ItemSearchService itemSearchService;
+    private final MatchService matchService;
+    private final BoundedCache<Long, LostItemResponse> detailCache;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
 
-    public LostItemService(LostItemRepository repository, UserRepository userRepository) {
+    public LostItemService(LostItemRepository repository,
+                           ItemSearchService itemSearchService, MatchService matchService,
+                           BoundedCache<Long, LostItemResponse> detailCache,
+                           ImageStorageService imageStorageService,
+                           ImageDerivativeService imageDerivativeService) {
         this.repository = repository;
-        this.userRepository = userRepository;
+        this.itemSearchService = itemSearchService;
+        this.matchService = matchService;
+        this.detailCache = detailCache;
+        this.imageStorageService = imageStorageService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
-    public LostItemResponse reportLostItem(LostItemRequest request, Authentication authentication) throws IOException {
-        String email = authentication.getName();
-        User reporter = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        String fileName = null;
-        MultipartFile image = request.getImage();
-        if (image != null && !image.isEmpty()) {
-            fileName = System.currentTimeMillis() + "_" + image.getOriginalFilename();
-            Path path = Paths.get("uploads", fileName);
-            Files.createDirectories(path.getParent());
-            Files.write(path, image.getBytes());
-        }
+    // The reporter is the authenticated principal, already loaded (or cached) by the auth filter.
+    public LostItemResponse reportLostItem(LostItemRequest request, User reporter) throws IOException {
+
+        String imagePath = imageStorageService.store(request.getImage());
 
         LostItem item = new LostItem(
                 request.getTitle(),
                 request.getDescription(),
                 request.getLocation(),
-                request.getLostDate(),
-                fileName != null ? "/uploads/" + fileName : null
+                request.getLostDate() != null ? request.getLostDate() : LocalDateTime.now(),
+                imagePath
         );
         item.setReportedBy(reporter);
 
-        LostItem saved = repository.save(item);
+        LostItem saved;
+        try {
+            saved = repository.save(item);
+        } catch (RuntimeException e) {
+            // The row was never written, so nothing refers to the stored image.
+            releaseImage(imagePath, e);
+            throw e;
+        }
+        itemSearchService.indexLostItem(saved);
+        matchService.onLostItemSaved(saved);
+        imageDerivativeService.submit(ItemType.LOST, saved.getId(), saved.getImagePath());
         return mapToResponse(saved);
     }
 
-    public List<LostItemResponse> getAllLostItems() {
-        return repository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private void releaseImage(String imagePath, RuntimeException cause) {
+        try {
+            imageStorageService.release(imagePath);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    public CursorPage<LostItemResponse> getLostItems(String cursor, int size, boolean openOnly) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        List<LostItemResponse> rows;
+        if (after == null || after.date() != null) {
+            if (after == null) {
+                rows = openOnly ? repository.findOpenFirstPage(limit) : repository.findFirstPage(limit);
+            } else {
+                rows = openOnly
+                        ? repository.findOpenPageAfter(after.date(), after.id(), limit)
+                        : repository.findPageAfter(after.date(), after.id(), limit);
+            }
+            if (rows.size() <= pageSize) {
+                // Dated rows are exhausted; fill the page from the undated ones.
+                rows = new ArrayList<>(rows);
+                rows.addAll(undatedPageAfter(Long.MAX_VALUE, openOnly, Limit.of(pageSize + 1 - rows.size())));
+            }
+        } else {
+            rows = undatedPageAfter(after.id(), openOnly, limit);
+        }
+
+        return CursorPage.of(rows, pageSize, Function.identity(),
+                item -> new KeysetCursor(item.lostDate(), item.id()));
+    }
+
+    private List<LostItemResponse> undatedPageAfter(Long id, boolean openOnly, Limit limit) {
+        return openOnly
+                ? repository.findOpenUndatedPageAfter(id, limit)
+                : repository.findUndatedPageAfter(id, limit);
     }
 
     public LostItemResponse getLostItemById(Long id) {
-        LostItem item = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Lost item not found with id: " + id));
-        return mapToResponse(item);
+        return detailCache.get(id, key -> repository.findResponseById(key)
+                .orElseThrow(() -> new RuntimeException("Lost item not found with id: " + key)));
     }
 
     private LostItemResponse mapToResponse(LostItem item) {
@@ -75,7 +129,9 @@ public class LostItemService {
                 item.getLostDate(),
                 item.isResolved(),
                 item.getImagePath(),
-                item.getReportedBy()
+                item.getThumbnailPath(),
+                item.getMediumPath(),
+                ReporterSummary.of(item.getReportedBy())
         );
     }
 
@@ -85,5 +141,20 @@ public class LostItemService {
 
         item.setResolved(true);
         repository.save(item);
+        evict(itemId);
+    }
+
+    // Approving a claim closes its item in bulk; the caches and indexes catch up once that commits.
+    @TransactionalEventListener
+    public void onItemsClosed(ItemsClosedEvent event) {
+        if (event.type() == ItemType.LOST) {
+            event.ids().forEach(this::evict);
+        }
+    }
+
+    private void evict(Long itemId) {
+        detailCache.invalidate(itemId);
+        itemSearchService.markClosed(ItemType.LOST, itemId);
+        matchService.onItemClosed(ItemType.LOST, itemId);
     }
 }
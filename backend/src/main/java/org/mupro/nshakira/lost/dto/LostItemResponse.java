@@ -1,5 +1,7 @@
 package org.mupro.nshakira.lost.dto;
 
+import org.mupro.nshakira.user.ReporterSummary;
+
 import java.time.LocalDateTime;
 
 public record LostItemResponse(
@@ -10,5 +12,15 @@ public record LostItemResponse(
         LocalDateTime lostDate,
         boolean isResolved,
         String imageUrl,
-        org.mupro.nshakira.user.User reportedBy
-) {}
+        String thumbnailUrl,
+        String mediumUrl,
+        ReporterSummary reportedBy
+) {
+    // Flat constructor used by the JPQL projections in LostItemRepository
+    public LostItemResponse(Long id, String title, String description, String location, LocalDateTime lostDate,
+                            boolean isResolved, String imageUrl, String thumbnailUrl, String mediumUrl,
+                            Long reporterId, String reporterName) {
+        this(id, title, description, location, lostDate, isResolved, imageUrl, thumbnailUrl, mediumUrl,
+                reporterId == null ? null : new ReporterSummary(reporterId, reporterName));
+    }
+}
@@ -0,0 +1,104 @@
+package org.mupro.nshakira.match;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Locality-sensitive hashing over MinHash signatures: the signature is cut into bands and every band is a bucket key.
+// Items sharing at least one bucket become candidates, so a lookup touches a handful of buckets instead of every item.
+class LshIndex {
+
+    private final int bands;
+    private final int rows;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, MatchCandidate> candidates = new HashMap<>();
+    private final Map<Long, List<Long>> buckets = new HashMap<>();
+
+    LshIndex(int bands, int rows) {
+        this.bands = bands;
+        this.rows = rows;
+    }
+
+    void add(MatchCandidate candidate) {
+        lock.writeLock().lock();
+        try {
+            MatchCandidate previous = candidates.put(candidate.itemId(), candidate);
+            if (previous != null) {
+                unbucket(previous);
+            }
+            for (int band = 0; band < bands; band++) {
+                buckets.computeIfAbsent(bucketKey(candidate.signature(), band), k -> new ArrayList<>(2))
+                        .add(candidate.itemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            MatchCandidate previous = candidates.remove(itemId);
+            if (previous != null) {
+                unbucket(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<MatchCandidate> candidatesFor(int[] signature) {
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (int band = 0; band < bands; band++) {
+                List<Long> bucket = buckets.get(bucketKey(signature, band));
+                if (bucket != null) {
+                    ids.addAll(bucket);
+                }
+            }
+            List<MatchCandidate> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(candidates.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return candidates.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unbucket(MatchCandidate candidate) {
+        for (int band = 0; band < bands; band++) {
+            long key = bucketKey(candidate.signature(), band);
+            List<Long> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(candidate.itemId());
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private long bucketKey(int[] signature, int band) {
+        long h = band;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            h = h * 0x9E3779B97F4A7C15L + signature[r];
+        }
+        return h;
+    }
+}
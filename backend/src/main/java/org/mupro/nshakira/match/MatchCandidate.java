@@ -0,0 +1,6 @@
+package org.mupro.nshakira.match;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+record MatchCandidate(Long itemId, int[] signature, Set<String> locationTerms, LocalDateTime date) {}
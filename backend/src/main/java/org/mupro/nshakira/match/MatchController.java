@@ -0,0 +1,34 @@
+package org.mupro.nshakira.match;
+
+import org.mupro.nshakira.match.dto.MatchResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/matches")
+public class MatchController {
+
+    private final MatchService matchService;
+
+    public MatchController(MatchService matchService) {
+        this.matchService = matchService;
+    }
+
+    @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
+    @GetMapping("/lost/{id}")
+    public ResponseEntity<List<MatchResponse>> getMatchesForLostItem(@PathVariable Long id) {
+        return ResponseEntity.ok(matchService.getMatchesForLostItem(id));
+    }
+
+    @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
+    @GetMapping("/found/{id}")
+    public ResponseEntity<List<MatchResponse>> getMatchesForFoundItem(@PathVariable Long id) {
+        return ResponseEntity.ok(matchService.getMatchesForFoundItem(id));
+    }
+}
@@ -0,0 +1,223 @@
+package org.mupro.nshakira.match;
+
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.mupro.nshakira.match.dto.MatchResponse;
+import org.mupro.nshakira.search.TextAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class MatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchService.class);
+
+    // 64 bands of 2 rows: pairs with a Jaccard similarity around 0.15 or more are likely to share a bucket.
+    private static final int BANDS = 64;
+    private static final int ROWS = 2;
+
+    private static final float TEXT_WEIGHT = 0.6f;
+    private static final float LOCATION_WEIGHT = 0.25f;
+    private static final float DATE_WEIGHT = 0.15f;
+    private static final float MIN_SCORE = 0.2f;
+    private static final double DATE_DECAY_DAYS = 14.0;
+
+    private static final int SUGGESTIONS_PER_ITEM = 10;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MinHasher minHasher = new MinHasher(BANDS * ROWS, 0x5eedL);
+    private final LshIndex openLostItems = new LshIndex(BANDS, ROWS);
+    private final LshIndex openFoundItems = new LshIndex(BANDS, ROWS);
+
+    private final MatchSuggestionRepository matchSuggestionRepository;
+    private final LostItemRepository lostItemRepository;
+    private final FoundItemRepository foundItemRepository;
+
+    public MatchService(MatchSuggestionRepository matchSuggestionRepository,
+                        LostItemRepository lostItemRepository,
+                        FoundItemRepository foundItemRepository) {
+        this.matchSuggestionRepository = matchSuggestionRepository;
+        this.lostItemRepository = lostItemRepository;
+        this.foundItemRepository = foundItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        List<LostItem> lostBatch;
+        do {
+            lostBatch = lostItemRepository.findByIsResolvedFalseAndIdGreaterThanOrderByIdAsc(
+                    lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (LostItem item : lostBatch) {
+                toCandidate(item).ifPresent(openLostItems::add);
+                lastId = item.getId();
+            }
+        } while (lostBatch.size() == REBUILD_BATCH_SIZE);
+
+        lastId = 0;
+        List<FoundItem> foundBatch;
+        do {
+            foundBatch = foundItemRepository.findByIsReturnedFalseAndIdGreaterThanOrderByIdAsc(
+                    lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (FoundItem item : foundBatch) {
+                toCandidate(item).ifPresent(openFoundItems::add);
+                lastId = item.getId();
+            }
+        } while (foundBatch.size() == REBUILD_BATCH_SIZE);
+
+        log.info("Match index built with {} open lost and {} open found items",
+                openLostItems.size(), openFoundItems.size());
+    }
+
+    public void onLostItemSaved(LostItem item) {
+        if (item.isResolved()) {
+            return;
+        }
+        toCandidate(item).ifPresent(lost -> {
+            List<MatchSuggestion> suggestions = new ArrayList<>();
+            for (MatchCandidate found : openFoundItems.candidatesFor(lost.signature())) {
+                score(lost, found).ifPresent(suggestions::add);
+            }
+            persistTop(suggestions);
+            openLostItems.add(lost);
+        });
+    }
+
+    public void onFoundItemSaved(FoundItem item) {
+        if (item.isReturned()) {
+            return;
+        }
+        toCandidate(item).ifPresent(found -> {
+            List<MatchSuggestion> suggestions = new ArrayList<>();
+            for (MatchCandidate lost : openLostItems.candidatesFor(found.signature())) {
+                score(lost, found).ifPresent(suggestions::add);
+            }
+            persistTop(suggestions);
+            openFoundItems.add(found);
+        });
+    }
+
+    public void onItemClosed(ItemType type, Long itemId) {
+        (type == ItemType.LOST ? openLostItems : openFoundItems).remove(itemId);
+    }
+
+    public List<MatchResponse> getMatchesForLostItem(Long lostItemId) {
+        return matchSuggestionRepository
+                .findByLostItemIdOrderByScoreDesc(lostItemId, Limit.of(SUGGESTIONS_PER_ITEM))
+                .stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    public List<MatchResponse> getMatchesForFoundItem(Long foundItemId) {
+        return matchSuggestionRepository
+                .findByFoundItemIdOrderByScoreDesc(foundItemId, Limit.of(SUGGESTIONS_PER_ITEM))
+                .stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    // Runs after the item itself is saved and must never fail its report. When a lost item and a matching found item
+    // are reported together, both sides can score the same pair; whichever inserts second hits the unique pair
+    // constraint and skips it, so each pair is saved on its own.
+    private void persistTop(List<MatchSuggestion> suggestions) {
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        suggestions.sort(Comparator.comparing(MatchSuggestion::getScore).reversed());
+        for (MatchSuggestion suggestion : suggestions.subList(0, Math.min(SUGGESTIONS_PER_ITEM, suggestions.size()))) {
+            try {
+                matchSuggestionRepository.save(suggestion);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Match {}-{} already stored", suggestion.getLostItemId(), suggestion.getFoundItemId());
+            } catch (DataAccessException e) {
+                log.warn("Could not store match {}-{}: {}",
+                        suggestion.getLostItemId(), suggestion.getFoundItemId(), e.getMessage());
+            }
+        }
+    }
+
+    private Optional<MatchSuggestion> score(MatchCandidate lost, MatchCandidate found) {
+        float text = MinHasher.similarity(lost.signature(), found.signature());
+        float location = jaccard(lost.locationTerms(), found.locationTerms());
+        float date = dateProximity(lost.date(), found.date());
+        float score = TEXT_WEIGHT * text + LOCATION_WEIGHT * location + DATE_WEIGHT * date;
+        if (score < MIN_SCORE) {
+            return Optional.empty();
+        }
+        return Optional.of(new MatchSuggestion(lost.itemId(), found.itemId(), score, text, location, date));
+    }
+
+    // An item cannot be found (much) before it was lost; after that, similarity decays with the gap in days.
+    private static float dateProximity(LocalDateTime lostDate, LocalDateTime foundDate) {
+        if (lostDate == null || foundDate == null) {
+            return 0f;
+        }
+        long hours = Duration.between(lostDate, foundDate).toHours();
+        if (hours < -24) {
+            return 0f;
+        }
+        return (float) Math.exp(-Math.max(0, hours) / 24.0 / DATE_DECAY_DAYS);
+    }
+
+    private static float jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0f;
+        }
+        int common = 0;
+        for (String term : a) {
+            if (b.contains(term)) {
+                common++;
+            }
+        }
+        return (float) common / (a.size() + b.size() - common);
+    }
+
+    private Optional<MatchCandidate> toCandidate(LostItem item) {
+        return toCandidate(item.getId(), item.getTitle(), item.getDescription(), item.getLocation(), item.getLostDate());
+    }
+
+    private Optional<MatchCandidate> toCandidate(FoundItem item) {
+        return toCandidate(item.getId(), item.getTitle(), item.getDescription(), item.getLocation(), item.getFoundDate());
+    }
+
+    private Optional<MatchCandidate> toCandidate(Long id, String title, String description,
+                                                 String location, LocalDateTime date) {
+        Set<String> terms = new HashSet<>(TextAnalyzer.analyze(title));
+        terms.addAll(TextAnalyzer.analyze(description));
+        if (terms.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new MatchCandidate(id, minHasher.signature(terms),
+                new HashSet<>(TextAnalyzer.analyze(location)), date));
+    }
+
+    private MatchResponse mapToResponse(MatchSuggestion suggestion) {
+        return new MatchResponse(
+                suggestion.getLostItemId(),
+                suggestion.getFoundItemId(),
+                suggestion.getScore(),
+                suggestion.getTextScore(),
+                suggestion.getLocationScore(),
+                suggestion.getDateScore()
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package org.mupro.nshakira.match;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_match_suggestion_pair", columnNames = {"lost_item_id", "found_item_id"}),
+        indexes = {
+                @Index(name = "idx_match_suggestion_lost_score", columnList = "lost_item_id, score"),
+                @Index(name = "idx_match_suggestion_found_score", columnList = "found_item_id, score")
+        })
+public class MatchSuggestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lost_item_id", nullable = false)
+    private Long lostItemId;
+
+    @Column(name = "found_item_id", nullable = false)
+    private Long foundItemId;
+
+    private float score;
+
+    private float textScore;
+
+    private float locationScore;
+
+    private float dateScore;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public MatchSuggestion() {}
+
+    public MatchSuggestion(Long lostItemId, Long foundItemId, float score, float textScore, float locationScore, float dateScore) {
+        this.lostItemId = lostItemId;
+        this.foundItemId = foundItemId;
+        this.score = score;
+        this.textScore = textScore;
+        this.locationScore = locationScore;
+        this.dateScore = dateScore;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getLostItemId() { return lostItemId; }
+    public void setLostItemId(Long lostItemId) { this.lostItemId = lostItemId; }
+
+    public Long getFoundItemId() { return foundItemId; }
+    public void setFoundItemId(Long foundItemId) { this.foundItemId = foundItemId; }
+
+    public float getScore() { return score; }
+    public void setScore(float score) { this.score = score; }
+
+    public float getTextScore() { return textScore; }
+    public void setTextScore(float textScore) { this.textScore = textScore; }
+
+    public float getLocationScore() { return locationScore; }
+    public void setLocationScore(float locationScore) { this.locationScore = locationScore; }
+
+    public float getDateScore() { return dateScore; }
+    public void setDateScore(float dateScore) { this.dateScore = dateScore; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
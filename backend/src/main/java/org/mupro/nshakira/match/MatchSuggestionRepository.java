@@ -0,0 +1,12 @@
+package org.mupro.nshakira.match;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MatchSuggestionRepository extends JpaRepository<MatchSuggestion, Long> {
+    List<MatchSuggestion> findByLostItemIdOrderByScoreDesc(Long lostItemId, Limit limit);
+
+    List<MatchSuggestion> findByFoundItemIdOrderByScoreDesc(Long foundItemId, Limit limit);
+}
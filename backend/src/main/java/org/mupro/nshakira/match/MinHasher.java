@@ -0,0 +1,59 @@
+package org.mupro.nshakira.match;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+
+// MinHash signatures over a set of terms. Two signatures agree in a given slot with probability equal to the
+// Jaccard similarity of the underlying sets, so the fraction of equal slots estimates that similarity.
+public class MinHasher {
+
+    private final int[] seeds;
+
+    public MinHasher(int numHashes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.seeds = new int[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextInt();
+        }
+    }
+
+    public int size() {
+        return seeds.length;
+    }
+
+    public int[] signature(Collection<String> terms) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String term : terms) {
+            int base = term.hashCode();
+            for (int i = 0; i < seeds.length; i++) {
+                int h = mix(base ^ seeds[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    public static float similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (float) equal / a.length;
+    }
+
+    // Murmur3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,10 @@
+package org.mupro.nshakira.match.dto;
+
+public record MatchResponse(
+        Long lostItemId,
+        Long foundItemId,
+        float score,
+        float textScore,
+        float locationScore,
+        float dateScore) {
+}
@@ -0,0 +1,26 @@
+package org.mupro.nshakira.report;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Path;
+
+public record ReportArtifact(ReportType type, String version, Path path) {
+
+    // Spring answers Range and If-None-Match for Resource bodies itself; the version makes a stable ETag.
+    public ResponseEntity<Resource> toResponseEntity() {
+        return ResponseEntity.ok()
+                .contentType(type.getMediaType())
+                .eTag("\"" + version + "\"")
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(type.getFileName() + "." + type.getExtension())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(path));
+    }
+}
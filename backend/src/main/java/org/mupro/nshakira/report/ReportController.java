@@ -0,0 +1,46 @@
+package org.mupro.nshakira.report;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/{type}")
+    public ResponseEntity<ReportJobResponse> submit(@PathVariable ReportType type) {
+        ReportJobResponse job = reportService.submit(type);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/reports/jobs/" + job.id())
+                .body(job);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(reportService.getJob(id));
+    }
+
+    // 409 with the job's status until it is done.
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> download(@PathVariable String id) {
+        return reportService.getArtifact(id)
+                .<ResponseEntity<?>>map(ReportArtifact::toResponseEntity)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(reportService.getJob(id)));
+    }
+}
@@ -0,0 +1,57 @@
+package org.mupro.nshakira.report;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+// A report request and its progress. Fields written by the worker are volatile so status polls see them at once.
+class ReportJob {
+
+    private final String id;
+    private final ReportType type;
+    private final String version;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    private volatile Path artifact;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    ReportJob(String id, ReportType type, String version) {
+        this.id = id;
+        this.type = type;
+        this.version = version;
+    }
+
+    void running() {
+        status = ReportJobStatus.RUNNING;
+    }
+
+    void done(Path artifact) {
+        this.artifact = artifact;
+        this.finishedAt = LocalDateTime.now();
+        this.status = ReportJobStatus.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = ReportJobStatus.FAILED;
+    }
+
+    boolean isFinished() {
+        return status == ReportJobStatus.DONE || status == ReportJobStatus.FAILED;
+    }
+
+    String getId() { return id; }
+    ReportType getType() { return type; }
+    String getVersion() { return version; }
+    LocalDateTime getCreatedAt() { return createdAt; }
+    ReportJobStatus getStatus() { return status; }
+    Path getArtifact() { return artifact; }
+    String getError() { return error; }
+    LocalDateTime getFinishedAt() { return finishedAt; }
+
+    ReportJobResponse toResponse() {
+        return new ReportJobResponse(id, type, status, version, createdAt, finishedAt, error);
+    }
+}
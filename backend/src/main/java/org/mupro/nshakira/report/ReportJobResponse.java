@@ -0,0 +1,13 @@
+package org.mupro.nshakira.report;
+
+import java.time.LocalDateTime;
+
+public record ReportJobResponse(
+        String id,
+        ReportType type,
+        ReportJobStatus status,
+        String version,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt,
+        String error) {
+}
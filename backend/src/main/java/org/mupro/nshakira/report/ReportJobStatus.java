@@ -0,0 +1,8 @@
+package org.mupro.nshakira.report;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,209 @@
+package org.mupro.nshakira.report;
+
+import jakarta.annotation.PreDestroy;
+import org.mupro.nshakira.claim.ClaimService;
+import org.mupro.nshakira.exception.ResourceNotFoundException;
+import org.mupro.nshakira.exception.ServiceOverloadedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Renders reports in the background and keeps the results on disk as <report>-<version>.<ext>, where the version is
+// a stamp of the data the report is built from. Submitting a report whose current version is already on disk
+// finishes at once; submitting one that is already being rendered returns that job. Only the newest artifact of each
+// report is kept. Jobs themselves live in memory and are forgotten job-retention after they finish.
+@Service
+public class ReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportService.class);
+
+    private final ClaimService claimService;
+    private final Path reportDir;
+    private final Duration jobRetention;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // type:version -> job rendering it, so identical submissions share one render.
+    private final Map<String, ReportJob> rendering = new ConcurrentHashMap<>();
+
+    public ReportService(ClaimService claimService,
+                         @Value("${report.dir:reports}") String reportDir,
+                         @Value("${report.workers:2}") int workers,
+                         @Value("${report.queue-capacity:10}") int queueCapacity,
+                         @Value("${report.job-retention:1h}") Duration jobRetention) throws IOException {
+        this.claimService = claimService;
+        this.reportDir = Paths.get(reportDir).toAbsolutePath().normalize();
+        this.jobRetention = jobRetention;
+        Files.createDirectories(this.reportDir);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ReportJobResponse submit(ReportType type) {
+        String version = currentVersion(type);
+        Path artifact = artifactPath(type, version);
+        if (Files.isRegularFile(artifact)) {
+            ReportJob job = register(new ReportJob(UUID.randomUUID().toString(), type, version));
+            job.done(artifact);
+            return job.toResponse();
+        }
+
+        ReportJob candidate = new ReportJob(UUID.randomUUID().toString(), type, version);
+        ReportJob job = rendering.computeIfAbsent(type + ":" + version, key -> candidate);
+        if (job != candidate) {
+            return job.toResponse();
+        }
+        register(job);
+        try {
+            executor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rendering.remove(type + ":" + version);
+            throw new ServiceOverloadedException("Too many reports are being generated, try again shortly", 30);
+        }
+        return job.toResponse();
+    }
+
+    public ReportJobResponse getJob(String id) {
+        return find(id).toResponse();
+    }
+
+    // Empty while the job is still running or if it failed.
+    public Optional<ReportArtifact> getArtifact(String id) {
+        ReportJob job = find(id);
+        if (job.getStatus() != ReportJobStatus.DONE) {
+            return Optional.empty();
+        }
+        if (!Files.isRegularFile(job.getArtifact())) {
+            // Replaced by a newer version since the job finished.
+            throw new ResourceNotFoundException("Report " + id + " has been superseded, request it again");
+        }
+        return Optional.of(new ReportArtifact(job.getType(), job.getVersion(), job.getArtifact()));
+    }
+
+    // The artifact for the data as it is now, if one has been rendered.
+    public Optional<ReportArtifact> currentArtifact(ReportType type) {
+        String version = currentVersion(type);
+        Path artifact = artifactPath(type, version);
+        return Files.isRegularFile(artifact)
+                ? Optional.of(new ReportArtifact(type, version, artifact))
+                : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${report.cleanup-interval:600000}")
+    public void forgetFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void render(ReportJob job) {
+        job.running();
+        Path target = artifactPath(job.getType(), job.getVersion());
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(reportDir, job.getType().getFileName() + "-", ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                write(job.getType(), out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.done(target);
+            deleteOlderVersions(job.getType(), target);
+        } catch (Exception e) {
+            log.warn("Report {} ({}) failed: {}", job.getId(), job.getType(), e.getMessage());
+            job.failed("Report generation failed");
+            deleteQuietly(temp);
+        } finally {
+            rendering.remove(job.getType() + ":" + job.getVersion());
+        }
+    }
+
+    private void write(ReportType type, OutputStream out) throws IOException {
+        switch (type) {
+            case APPROVED_CLAIMS -> claimService.writeApprovedClaimsPdf(out);
+        }
+    }
+
+    private String currentVersion(ReportType type) {
+        return switch (type) {
+            case APPROVED_CLAIMS -> claimService.approvedClaimsVersion();
+        };
+    }
+
+    // Files already being streamed stay readable after deletion, so old versions can go as soon as a newer exists.
+    private void deleteOlderVersions(ReportType type, Path keep) {
+        String glob = type.getFileName() + "-*." + type.getExtension();
+        try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(reportDir, glob)) {
+            for (Path artifact : artifacts) {
+                if (!artifact.equals(keep)) {
+                    deleteQuietly(artifact);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not prune old {} reports: {}", type, e.getMessage());
+        }
+    }
+
+    private Path artifactPath(ReportType type, String version) {
+        return reportDir.resolve(type.getFileName() + "-" + version + "." + type.getExtension());
+    }
+
+    private ReportJob register(ReportJob job) {
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private ReportJob find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found: " + id);
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.mupro.nshakira.report;
+
+import org.springframework.http.MediaType;
+
+public enum ReportType {
+    APPROVED_CLAIMS("approved_claims", "pdf", MediaType.APPLICATION_PDF);
+
+    private final String fileName;
+    private final String extension;
+    private final MediaType mediaType;
+
+    ReportType(String fileName, String extension, MediaType mediaType) {
+        this.fileName = fileName;
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getFileName() { return fileName; }
+    public String getExtension() { return extension; }
+    public MediaType getMediaType() { return mediaType; }
+}
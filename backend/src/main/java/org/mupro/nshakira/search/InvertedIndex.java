@@ -0,0 +1,278 @@
+package org.mupro.nshakira.search;
+
+import org.mupro.nshakira.common.ItemType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index ranked with BM25. Documents get a dense ordinal on insert and postings are append-only
+// (ordinal, term frequency) arrays; re-indexing a document tombstones its old ordinal instead of rewriting postings.
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<ItemType, Map<Long, Integer>> ordinals = new EnumMap<>(ItemType.class);
+
+    private long[] itemIds = new long[1024];
+    private ItemType[] itemTypes = new ItemType[1024];
+    private int[] lengths = new int[1024];
+    private final BitSet live = new BitSet();
+    private final BitSet open = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private long liveLength;
+
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+
+    public InvertedIndex() {
+        for (ItemType type : ItemType.values()) {
+            ordinals.put(type, new HashMap<>());
+        }
+    }
+
+    public void upsert(ItemType type, long itemId, List<String> terms, boolean isOpen) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(type).get(itemId);
+            if (previous != null) {
+                tombstone(previous);
+            }
+
+            int doc = docCount++;
+            ensureCapacity(doc + 1);
+            itemIds[doc] = itemId;
+            itemTypes[doc] = type;
+            lengths[doc] = terms.size();
+            live.set(doc);
+            open.set(doc, isOpen);
+            liveCount++;
+            liveLength += terms.size();
+            ordinals.get(type).put(itemId, doc);
+
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new Postings()).add(doc, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setOpen(ItemType type, long itemId, boolean isOpen) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = ordinals.get(type).get(itemId);
+            if (doc != null) {
+                open.set(doc, isOpen);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(ItemType type, long itemId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = ordinals.get(type).remove(itemId);
+            if (doc != null) {
+                tombstone(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(List<String> queryTerms, ItemType typeFilter, boolean openOnly, int limit) {
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return List.of();
+            }
+            float avgLength = (float) liveLength / liveCount;
+            Accumulator acc = accumulators.get();
+            acc.reset(docCount);
+
+            // Rarest terms first. Once the terms still to go cannot lift an unseen document above the current k-th
+            // score (MaxScore), they only need to adjust documents already scored, found by binary search.
+            List<Postings> lists = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            float[] idfs = new float[lists.size()];
+            float[] remainingMax = new float[lists.size() + 1];
+            for (int t = lists.size() - 1; t >= 0; t--) {
+                Postings list = lists.get(t);
+                idfs[t] = (float) Math.log(1 + (liveCount - list.size + 0.5) / (list.size + 0.5));
+                remainingMax[t] = remainingMax[t + 1] + idfs[t] * (K1 + 1);
+            }
+
+            boolean lookupOnly = false;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings list = lists.get(t);
+                if (!lookupOnly && t > 0 && acc.touchedCount >= limit
+                        && remainingMax[t] < kthScore(acc, limit)) {
+                    lookupOnly = true;
+                }
+
+                if (lookupOnly) {
+                    for (int i = 0; i < acc.touchedCount; i++) {
+                        int doc = acc.touched[i];
+                        int pos = Arrays.binarySearch(list.docs, 0, list.size, doc);
+                        if (pos >= 0) {
+                            acc.add(doc, bm25(idfs[t], list.freqs[pos], lengths[doc], avgLength));
+                        }
+                    }
+                    continue;
+                }
+
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (!live.get(doc)
+                            || (openOnly && !open.get(doc))
+                            || (typeFilter != null && itemTypes[doc] != typeFilter)) {
+                        continue;
+                    }
+                    acc.add(doc, bm25(idfs[t], list.freqs[i], lengths[doc], avgLength));
+                }
+            }
+
+            return topHits(acc, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static float bm25(float idf, int tf, int length, float avgLength) {
+        float norm = K1 * (1 - B + B * length / avgLength);
+        return idf * tf * (K1 + 1) / (tf + norm);
+    }
+
+    private static float kthScore(Accumulator acc, int k) {
+        PriorityQueue<Float> heap = new PriorityQueue<>(k + 1);
+        for (int i = 0; i < acc.touchedCount; i++) {
+            heap.add(acc.scores[acc.touched[i]]);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        return heap.peek();
+    }
+
+    private List<SearchHit> topHits(Accumulator acc, int limit) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1,
+                (a, b) -> Float.compare(acc.scores[a], acc.scores[b]));
+        for (int i = 0; i < acc.touchedCount; i++) {
+            int doc = acc.touched[i];
+            if (heap.size() < limit) {
+                heap.add(doc);
+            } else if (acc.scores[doc] > acc.scores[heap.peek()]) {
+                heap.poll();
+                heap.add(doc);
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int doc = heap.poll();
+            hits.add(new SearchHit(itemTypes[doc], itemIds[doc], acc.scores[doc]));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private void tombstone(int doc) {
+        if (live.get(doc)) {
+            live.clear(doc);
+            open.clear(doc);
+            liveCount--;
+            liveLength -= lengths[doc];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > itemIds.length) {
+            int newLength = Math.max(capacity, itemIds.length * 2);
+            itemIds = Arrays.copyOf(itemIds, newLength);
+            itemTypes = Arrays.copyOf(itemTypes, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    // Per-thread score array indexed by ordinal, plus the list of ordinals touched so it can be cleared cheaply.
+    private static final class Accumulator {
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+            }
+            touchedCount = 0;
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+            }
+        }
+
+        void add(int doc, float score) {
+            if (scores[doc] == 0f) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, Math.max(16, touchedCount * 2));
+                }
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+    }
+}
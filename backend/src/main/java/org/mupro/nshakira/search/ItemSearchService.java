@@ -0,0 +1,87 @@
+package org.mupro.nshakira.search;
+
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ItemSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchService.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MAX_RESULTS = 100;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final LostItemRepository lostItemRepository;
+    private final FoundItemRepository foundItemRepository;
+
+    public ItemSearchService(LostItemRepository lostItemRepository, FoundItemRepository foundItemRepository) {
+        this.lostItemRepository = lostItemRepository;
+        this.foundItemRepository = foundItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        List<LostItem> lostBatch;
+        do {
+            lostBatch = lostItemRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (LostItem item : lostBatch) {
+                indexLostItem(item);
+                lastId = item.getId();
+            }
+        } while (lostBatch.size() == REBUILD_BATCH_SIZE);
+
+        lastId = 0;
+        List<FoundItem> foundBatch;
+        do {
+            foundBatch = foundItemRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (FoundItem item : foundBatch) {
+                indexFoundItem(item);
+                lastId = item.getId();
+            }
+        } while (foundBatch.size() == REBUILD_BATCH_SIZE);
+
+        log.info("Search index built with {} items", index.size());
+    }
+
+    public void indexLostItem(LostItem item) {
+        index.upsert(ItemType.LOST, item.getId(),
+                terms(item.getTitle(), item.getDescription(), item.getLocation()), !item.isResolved());
+    }
+
+    public void indexFoundItem(FoundItem item) {
+        index.upsert(ItemType.FOUND, item.getId(),
+                terms(item.getTitle(), item.getDescription(), item.getLocation()), !item.isReturned());
+    }
+
+    public void markClosed(ItemType type, Long itemId) {
+        index.setOpen(type, itemId, false);
+    }
+
+    public List<SearchHit> search(String query, ItemType type, boolean openOnly, int limit) {
+        return index.search(TextAnalyzer.analyze(query), type, openOnly, Math.min(limit, MAX_RESULTS));
+    }
+
+    // Title terms are counted twice so a hit in the title outranks the same hit buried in the description.
+    private static List<String> terms(String title, String description, String location) {
+        List<String> titleTerms = TextAnalyzer.analyze(title);
+        List<String> terms = new ArrayList<>(titleTerms);
+        terms.addAll(titleTerms);
+        terms.addAll(TextAnalyzer.analyze(description));
+        terms.addAll(TextAnalyzer.analyze(location));
+        return terms;
+    }
+}
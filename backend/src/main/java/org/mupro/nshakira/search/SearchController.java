@@ -0,0 +1,32 @@
+package org.mupro.nshakira.search;
+
+import org.mupro.nshakira.common.ItemType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final ItemSearchService itemSearchService;
+
+    public SearchController(ItemSearchService itemSearchService) {
+        this.itemSearchService = itemSearchService;
+    }
+
+    @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<SearchHit>> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) ItemType type,
+            @RequestParam(defaultValue = "false") boolean openOnly,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(itemSearchService.search(query, type, openOnly, limit));
+    }
+}
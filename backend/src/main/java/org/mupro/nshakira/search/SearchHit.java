@@ -0,0 +1,5 @@
+package org.mupro.nshakira.search;
+
+import org.mupro.nshakira.common.ItemType;
+
+public record SearchHit(ItemType itemType, Long itemId, float score) {}
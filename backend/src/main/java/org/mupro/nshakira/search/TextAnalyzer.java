@@ -0,0 +1,81 @@
+package org.mupro.nshakira.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Lower-cases, splits on anything that is not a letter or digit, drops stop words and applies a light suffix stemmer.
+public final class TextAnalyzer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "in", "into",
+            "is", "it", "its", "my", "near", "of", "on", "or", "our", "that", "the", "their", "there", "this",
+            "to", "was", "were", "with", "you", "your"
+    );
+
+    private TextAnalyzer() {}
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (!current.isEmpty()) {
+                addTerm(terms, current.toString());
+                current.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() < MIN_TOKEN_LENGTH || STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+
+        String w = word;
+        if (w.endsWith("sses")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ies")) {
+            w = w.substring(0, w.length() - 3) + "y";
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) {
+            w = w.substring(0, w.length() - 1);
+        }
+
+        for (String suffix : new String[]{"ingly", "edly", "ness", "ment", "ing", "ful", "ed", "ly"}) {
+            if (w.endsWith(suffix) && w.length() - suffix.length() >= 3) {
+                w = w.substring(0, w.length() - suffix.length());
+                w = undouble(w);
+                break;
+            }
+        }
+        return w;
+    }
+
+    // "stopp" -> "stop", but keep "ll", "ss" and "zz" endings ("fall", "glass").
+    private static String undouble(String w) {
+        int n = w.length();
+        if (n >= 2 && w.charAt(n - 1) == w.charAt(n - 2)) {
+            char c = w.charAt(n - 1);
+            if (c != 'l' && c != 's' && c != 'z' && "aeiou".indexOf(c) < 0) {
+                return w.substring(0, n - 1);
+            }
+        }
+        return w;
+    }
+}
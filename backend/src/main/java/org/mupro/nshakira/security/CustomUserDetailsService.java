@@ -1,7 +1,6 @@
 package org.mupro.nshakira.security;
 
 import org.mupro.nshakira.user.User;
-import org.mupro.nshakira.user.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,15 +9,18 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException{
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email" + email));
+        User user = principalCache.get(email);
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with email" + email);
+        }
+        return user;
     }
 }
@@ -0,0 +1,148 @@
+package org.mupro.nshakira.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.mupro.nshakira.exception.ServiceOverloadedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt on a dedicated, bounded pool. At most one hash per worker runs at a time, so a login storm cannot take
+// every servlet thread and CPU with it; once the queue is full further requests fail at once with a 503 instead of
+// piling up. The cost factor is calibrated at startup so one hash takes about the target time on this hardware,
+// and hashes stored with a lower cost are reported by upgradeEncoding so login can rehash them. Hashes are never
+// rehashed downwards: a slow start or a node calibrated lower must not weaken what is already stored.
+@Component
+public class HashingPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(HashingPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int CALIBRATION_COST = 10;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final int cost;
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public HashingPasswordEncoder(@Value("${security.password.bcrypt-cost:0}") int configuredCost,
+                                  @Value("${security.password.target-hash-time:250ms}") Duration targetHashTime,
+                                  @Value("${security.password.min-cost:10}") int minCost,
+                                  @Value("${security.password.max-cost:16}") int maxCost,
+                                  @Value("${security.password.hashing-threads:0}") int threads,
+                                  @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${security.password.max-wait:10s}") Duration maxWait,
+                                  MeterRegistry registry) {
+        this.cost = configuredCost > 0 ? configuredCost : calibrate(targetHashTime, minCost, maxCost);
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.maxWait = maxWait;
+
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.rejected = Counter.builder("auth.password.rejected").register(registry);
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("auth.password.cost", this, e -> e.cost).register(registry);
+        log.info("Password hashing uses BCrypt cost {} on {} threads", cost, workers);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // True only when the stored hash was made with a lower cost than the current one.
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many sign-in requests, try again shortly", RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many sign-in requests, try again shortly", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Each cost step doubles the work, so one measurement at a fixed cost is enough to pick the highest cost whose
+    // hash stays within the target. The result never drops below minCost, however slow the measurement was.
+    private static int calibrate(Duration target, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_COST);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double steps = Math.log((double) target.toNanos() / best) / Math.log(2);
+        int calibrated = CALIBRATION_COST + (int) Math.floor(steps);
+        return Math.max(minCost, Math.min(maxCost, calibrated));
+    }
+}
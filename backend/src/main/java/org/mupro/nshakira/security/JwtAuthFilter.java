@@ -1,10 +1,10 @@
 package org.mupro.nshakira.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.mupro.nshakira.token.TokenRepository;
 import org.mupro.nshakira.user.User;
 import org.mupro.nshakira.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +22,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     @Autowired private JwtService jwtService;
     @Autowired private CustomUserDetailsService userDetailsService;
-    @Autowired private TokenRepository tokenRepository;
+    @Autowired private RevocationIndex revocationIndex;
+    @Autowired private TokenVersions tokenVersions;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,20 +37,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String userEmail = jwtService.extractUserName(jwt);
+        final VerifiedToken token;
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Unauthenticated from here on (a bare "Bearer " lands here too); protected endpoints answer 403.
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String userEmail = token.subject();
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && token.isAccessToken()
+                && !revocationIndex.isRevoked(token)
+                && token.version() == tokenVersions.current(userEmail)) {
             var userDetails = userDetailsService.loadUserByUsername(userEmail);
-            var token = tokenRepository.findByToken(jwt);
-
-            if (token.isPresent() && !token.get().isRevoked() && !token.get().isExpired()) {
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    var authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+
+            if (jwtService.isTokenValid(token, userDetails)) {
+                var authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
 
@@ -1,68 +1,136 @@
 package org.mupro.nshakira.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mupro.nshakira.common.BoundedCache;
 import org.mupro.nshakira.user.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.UUID;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.Jwts;
 
+// The signing key and parser are built once; both are immutable and thread-safe. verify() checks a token's
+// signature once and caches the result by token digest until the token expires, so a client replaying the same
+// bearer token on every request is only parsed the first time.
+//
+// Access tokens are short-lived and never stored. Refresh tokens are long-lived, stored, and rotated on every use.
+// Both carry the user's token version ("ver") so that bumping it revokes all of them.
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
 
-    @Value("${jwt.expiration}")
-    private long jwtExpirationMs;
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final BoundedCache<String, VerifiedToken> verifiedTokenCache;
 
-    private Key getSignInKey(){
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final Counter issuedAccessTokens;
+    private final Counter issuedRefreshTokens;
+    private final Counter verifiedFromCache;
+    private final Counter verifiedByParsing;
+    private final Counter rejectedTokens;
+
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+                      @Value("${jwt.refresh-token-ttl:14d}") Duration refreshTokenTtl,
+                      BoundedCache<String, VerifiedToken> verifiedTokenCache,
+                      MeterRegistry registry) {
+        this.signInKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.verifiedTokenCache = verifiedTokenCache;
+
+        this.issuedAccessTokens = Counter.builder("auth.tokens.issued").tag("type", ACCESS_TOKEN).register(registry);
+        this.issuedRefreshTokens = Counter.builder("auth.tokens.issued").tag("type", REFRESH_TOKEN).register(registry);
+        this.verifiedFromCache = Counter.builder("auth.tokens.verified").tag("result", "cached").register(registry);
+        this.verifiedByParsing = Counter.builder("auth.tokens.verified").tag("result", "parsed").register(registry);
+        this.rejectedTokens = Counter.builder("auth.tokens.verified").tag("result", "rejected").register(registry);
+    }
+
+    // Throws a JwtException when the token is malformed, badly signed or expired.
+    public VerifiedToken verify(String token){
+        String digest = TokenDigest.of(token);
+        VerifiedToken cached = verifiedTokenCache.getIfPresent(digest);
+        if (cached != null) {
+            verifiedFromCache.increment();
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTokens.increment();
+            throw e;
+        }
+        verifiedByParsing.increment();
+        // Tokens issued before versioning have neither "typ" nor "ver": they are version-0 access tokens.
+        String type = claims.get("typ", String.class);
+        Integer version = claims.get("ver", Integer.class);
+        VerifiedToken verified = new VerifiedToken(
+                digest,
+                claims.getSubject(),
+                claims.get("role", String.class),
+                type == null ? ACCESS_TOKEN : type,
+                version == null ? 0 : version,
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
+        verifiedTokenCache.put(digest, verified, Duration.between(Instant.now(), verified.expiresAt()));
+        return verified;
     }
 
     public String extractUserName(String token){
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver){
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public String generateAccessToken(User user){
+        issuedAccessTokens.increment();
+        return generateToken(user, ACCESS_TOKEN, accessTokenTtl);
     }
 
-    public String generateToken(User user){
+    public String generateRefreshToken(User user){
+        issuedRefreshTokens.increment();
+        return generateToken(user, REFRESH_TOKEN, refreshTokenTtl);
+    }
+
+    private String generateToken(User user, String type, Duration ttl){
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
                 .claim("role", user.getRole().name())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .claim("typ", type)
+                .claim("ver", user.getTokenVersion())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttl.toMillis()))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails){
-        final String username = extractUserName(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails){
+        return token.subject().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
-    private boolean isTokenExpired(String token){
-        return  extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token){
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(String token, UserDetails userDetails){
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Date extractExpiration(String token){
+        return Date.from(verify(token).expiresAt());
     }
 }
@@ -0,0 +1,41 @@
+package org.mupro.nshakira.security;
+
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.user.User;
+import org.mupro.nshakira.user.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Authenticated users by email, so the auth filter does not read the users table on every request. Entries are
+// detached User entities shared between requests and must be treated as read-only. Code that changes a user's
+// role, enabled flag or password calls invalidate().
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<String, User> principalCache;
+
+    public PrincipalCache(UserRepository userRepository, BoundedCache<String, User> principalUserCache) {
+        this.userRepository = userRepository;
+        this.principalCache = principalUserCache;
+    }
+
+    // Returns null for an unknown email.
+    public User get(String email) {
+        return principalCache.get(email, key -> userRepository.findByEmail(key).orElse(null));
+    }
+
+    // Evicts now and, inside a transaction, again after commit so a concurrent request cannot re-cache the old row.
+    public void invalidate(String email) {
+        principalCache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.mupro.nshakira.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mupro.nshakira.common.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Per-client throttling for the endpoints that cost the most: sign-in and registration (BCrypt), requests that send
+// email, and item reports (multipart uploads). Runs in the security chain right after JwtAuthFilter so report
+// limits can be keyed by the signed-in user; everything else is keyed by the client address. Each rule is configured
+// under rate-limit.<rule>.limit / period / paths, and only POST requests are counted.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                           Environment environment,
+                           MeterRegistry registry) {
+        this.enabled = enabled;
+        this.rules = List.of(
+                rule(environment, registry, "login", 10, Duration.ofMinutes(1), false,
+                        "/api/auth/login"),
+                rule(environment, registry, "register", 5, Duration.ofMinutes(10), false,
+                        "/api/auth/register,/api/auth/register-admin"),
+                rule(environment, registry, "auth", 30, Duration.ofMinutes(1), false,
+                        "/api/auth/refresh,/api/auth/logout,/api/auth/verify-otp,/api/auth/reset-password"),
+                rule(environment, registry, "verification", 5, Duration.ofMinutes(10), false,
+                        "/api/auth/send-otp,/api/auth/forgot-password"),
+                rule(environment, registry, "reports", 20, Duration.ofHours(1), true,
+                        "/api/lost-items,/api/found-items"));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getServletPath();
+        for (Rule rule : rules) {
+            if (!rule.paths().contains(path)) {
+                continue;
+            }
+            long waitNanos = rule.limiter().tryAcquire(clientKey(request, rule.perUser()));
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+            break;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        for (Rule rule : rules) {
+            rule.limiter().evictIdle();
+        }
+    }
+
+    // Behind a proxy the remote address is only the client's once server.forward-headers-strategy is set.
+    private static String clientKey(HttpServletRequest request, boolean perUser) {
+        if (perUser) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return authentication.getName();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long retryAfterSeconds = (waitNanos + second - 1) / second;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, try again later");
+    }
+
+    private static Rule rule(Environment environment, MeterRegistry registry, String name,
+                             int defaultLimit, Duration defaultPeriod, boolean perUser, String defaultPaths) {
+        String prefix = "rate-limit." + name + ".";
+        int limit = environment.getProperty(prefix + "limit", Integer.class, defaultLimit);
+        Duration period = environment.getProperty(prefix + "period", Duration.class, defaultPeriod);
+        Set<String> paths = new HashSet<>();
+        for (String path : environment.getProperty(prefix + "paths", String[].class, defaultPaths.split(","))) {
+            String trimmed = path.trim();
+            paths.add(trimmed);
+            paths.add(trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed + "/");
+        }
+        RateLimiter limiter = new RateLimiter(name, limit, period);
+        limiter.bindTo(registry);
+        return new Rule(Set.copyOf(paths), limiter, perUser);
+    }
+
+    private record Rule(Set<String> paths, RateLimiter limiter, boolean perUser) {}
+}
@@ -0,0 +1,98 @@
+package org.mupro.nshakira.security;
+
+import org.mupro.nshakira.token.RevokedToken;
+import org.mupro.nshakira.token.TokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked-but-unexpired tokens kept in memory so the auth filter never has to ask the database. A Bloom filter in
+// front of the digest -> expiry map answers the common "not revoked" case without a hash-map probe. Bloom filters
+// cannot forget, so the whole snapshot is rebuilt from the token table on a schedule: that drops expired entries
+// and picks up revocations made on other nodes.
+@Component
+public class RevocationIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationIndex.class);
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenRepository tokenRepository;
+
+    private final Object swapLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(MIN_CAPACITY);
+
+    public RevocationIndex(TokenRepository tokenRepository) {
+        this.tokenRepository = tokenRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:60000}", initialDelayString = "${jwt.revocation.refresh-interval:60000}")
+    public void reload() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> loaded = new ConcurrentHashMap<>();
+        for (RevokedToken revoked : tokenRepository.findRevokedUnexpired(LocalDateTime.now())) {
+            loaded.put(revoked.tokenHash(), toEpochMillis(revoked.expiresAt()));
+        }
+
+        synchronized (swapLock) {
+            // Keep revocations recorded here while the table was being read.
+            snapshot.entries.forEach((digest, expiresAt) -> {
+                if (expiresAt > now) {
+                    loaded.putIfAbsent(digest, expiresAt);
+                }
+            });
+            Snapshot next = new Snapshot(Math.max(MIN_CAPACITY, loaded.size() * 2));
+            loaded.forEach(next::add);
+            snapshot = next;
+        }
+        log.debug("Revocation index holds {} tokens", loaded.size());
+    }
+
+    public void revoke(String tokenHash, LocalDateTime expiresAt) {
+        long expiry = toEpochMillis(expiresAt);
+        if (expiry <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (swapLock) {
+            snapshot.add(tokenHash, expiry);
+        }
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        Snapshot current = snapshot;
+        String digest = token.digest();
+        if (!current.filter.mightContain(digest)) {
+            return false;
+        }
+        Long expiresAt = current.entries.get(digest);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Snapshot {
+        private final BloomFilter filter;
+        private final Map<String, Long> entries = new ConcurrentHashMap<>();
+
+        Snapshot(int capacity) {
+            this.filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        }
+
+        void add(String digest, long expiresAt) {
+            entries.put(digest, expiresAt);
+            filter.put(digest);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.mupro.nshakira.security;
+
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.user.User;
+import org.mupro.nshakira.user.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Current token version per user, cached briefly. Revoking every session of a user is one UPDATE that bumps the
+// version; this node drops its cached value immediately and other nodes within the cache ttl.
+@Component
+public class TokenVersions {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<String, Integer> tokenVersionCache;
+
+    public TokenVersions(UserRepository userRepository, BoundedCache<String, Integer> tokenVersionCache) {
+        this.userRepository = userRepository;
+        this.tokenVersionCache = tokenVersionCache;
+    }
+
+    // Returns -1 for an unknown user, which no token carries.
+    public int current(String email) {
+        Integer version = tokenVersionCache.get(email, key -> userRepository.findTokenVersionByEmail(key).orElse(null));
+        return version == null ? -1 : version;
+    }
+
+    // Invalidates every token issued to the user so far and updates the entity to the new version. The cached value
+    // is dropped now and again after commit, so a request reading the old version meanwhile cannot keep it cached.
+    @Transactional
+    public void bump(User user) {
+        userRepository.incrementTokenVersion(user.getId());
+        user.setTokenVersion(userRepository.findTokenVersionById(user.getId()).orElseThrow());
+        String email = user.getEmail();
+        tokenVersionCache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenVersionCache.invalidate(email);
+                }
+            });
+        }
+    }
+}
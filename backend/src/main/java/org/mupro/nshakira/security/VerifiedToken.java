@@ -0,0 +1,20 @@
+package org.mupro.nshakira.security;
+
+import java.time.Instant;
+
+// Claims of a JWT whose signature has already been checked. digest is the SHA-256 of the raw token.
+public record VerifiedToken(String digest, String subject, String role, String type, int version,
+                            Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    public boolean isAccessToken() {
+        return JwtService.ACCESS_TOKEN.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return JwtService.REFRESH_TOKEN.equals(type);
+    }
+}
@@ -0,0 +1,45 @@
+package org.mupro.nshakira.storage;
+
+// Parses a single "bytes=" range into [start, end) offsets. Multi-range requests are answered with the whole file,
+// which RFC 9110 allows and which saves building multipart/byteranges bodies for what are small images.
+final class ByteRange {
+
+    static final long[] UNSATISFIABLE = new long[0];
+
+    private ByteRange() {}
+
+    // Returns null when the header should be ignored and the full body sent.
+    static long[] parse(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes.
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] {Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(Long.parseLong(last) + 1, length);
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            if (end <= start) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.mupro.nshakira.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Blobs live at <upload-dir>/<hash[0..2]>/<hash[2..4]>/<hash>.<ext>, so no directory grows past a few thousand
+// entries even with millions of files, and identical content is stored once with a reference count in stored_blob.
+// Acquire and release of the same hash are serialised through lock stripes, which covers a single application node.
+@Component
+public class ContentAddressedStore {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern BLOB_PATH = Pattern.compile("([0-9a-f]{2})/([0-9a-f]{2})/(\\1\\2[0-9a-f]{60})\\.([a-z]+)");
+
+    private final Path root;
+    private final StoredBlobRepository storedBlobRepository;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public ContentAddressedStore(@Value("${file.upload-dir}") String uploadDir,
+                                 StoredBlobRepository storedBlobRepository) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.storedBlobRepository = storedBlobRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public static String relativePath(String hash, String extension) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+    }
+
+    // Returns the hash when the relative path names a content-addressed blob, otherwise null.
+    public static String hashOf(String relativePath) {
+        Matcher matcher = BLOB_PATH.matcher(relativePath);
+        return matcher.matches() ? matcher.group(3) : null;
+    }
+
+    // Takes ownership of the temp file: it either becomes the blob or is deleted because the blob already exists.
+    // Returns the blob's path relative to the upload directory.
+    public String commit(Path temp, String hash, String extension) throws IOException {
+        String relative = relativePath(hash, extension);
+        Path target = root.resolve(relative);
+        long size = Files.size(temp);
+        synchronized (lockFor(hash)) {
+            storedBlobRepository.acquire(hash, size, extension);
+            try {
+                if (Files.exists(target)) {
+                    Files.delete(temp);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException | RuntimeException e) {
+                // The caller gets no path to release later, so hand the reference back now.
+                storedBlobRepository.release(hash);
+                storedBlobRepository.deleteIfUnreferenced(hash);
+                throw e;
+            }
+        }
+        return relative;
+    }
+
+    // Drops one reference; the file is deleted together with its row once nothing refers to it any more.
+    public void release(String relativePath) throws IOException {
+        String hash = hashOf(relativePath);
+        if (hash == null) {
+            return;
+        }
+        synchronized (lockFor(hash)) {
+            storedBlobRepository.release(hash);
+            if (storedBlobRepository.deleteIfUnreferenced(hash) > 0) {
+                Files.deleteIfExists(root.resolve(relativePath));
+            }
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+}
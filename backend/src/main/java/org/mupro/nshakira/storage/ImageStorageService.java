@@ -0,0 +1,160 @@
+package org.mupro.nshakira.storage;
+
+import org.mupro.nshakira.exception.InvalidUploadException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+// Writes uploaded images to disk without ever holding the whole file in memory: the part is copied channel to channel
+// into a temp file, its size is enforced on the bytes actually received and its format is checked from the magic
+// bytes. The SHA-256 of the content is computed on the same pass and the file is handed to the content-addressed
+// store, so re-uploads of the same photo share one blob.
+@Service
+public class ImageStorageService {
+
+    private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    private static final int MAGIC_LENGTH = 12;
+    private static final String PUBLIC_PREFIX = "/uploads/";
+
+    private final Path uploadDir;
+    private final Path tempDir;
+    private final long maxImageBytes;
+    private final ContentAddressedStore contentAddressedStore;
+
+    public ImageStorageService(@Value("${file.upload-dir}") String uploadDir,
+                               @Value("${file.max-image-size:10MB}") DataSize maxImageSize,
+                               ContentAddressedStore contentAddressedStore) {
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempDir = this.uploadDir.resolve(".tmp");
+        this.maxImageBytes = maxImageSize.toBytes();
+        this.contentAddressedStore = contentAddressedStore;
+    }
+
+    public Path getUploadDir() {
+        return uploadDir;
+    }
+
+    // Returns the public path of the stored image, or null when no image was sent.
+    public String store(MultipartFile image) throws IOException {
+        if (image == null || image.isEmpty()) {
+            return null;
+        }
+        if (image.getSize() > maxImageBytes) {
+            throw new InvalidUploadException("Image exceeds the maximum size of " + maxImageBytes + " bytes");
+        }
+        if (image.getContentType() == null || !ALLOWED_CONTENT_TYPES.contains(image.getContentType())) {
+            throw new InvalidUploadException("Unsupported image type: " + image.getContentType());
+        }
+
+        Path temp = newTempFile();
+        try {
+            MessageDigest digest = sha256();
+            String extension = copyValidated(image, digest, temp);
+            return commit(temp, HexFormat.of().formatHex(digest.digest()), extension);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Stores a file produced by the application itself (e.g. a rendition); the temp file is consumed.
+    public String store(Path temp, String extension) throws IOException {
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(temp), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return commit(temp, HexFormat.of().formatHex(digest.digest()), extension);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public void release(String publicPath) throws IOException {
+        if (publicPath != null && publicPath.startsWith(PUBLIC_PREFIX)) {
+            contentAddressedStore.release(publicPath.substring(PUBLIC_PREFIX.length()));
+        }
+    }
+
+    public Path newTempFile() throws IOException {
+        Files.createDirectories(tempDir);
+        return Files.createTempFile(tempDir, "upload-", ".part");
+    }
+
+    private String commit(Path temp, String hash, String extension) throws IOException {
+        return PUBLIC_PREFIX + contentAddressedStore.commit(temp, hash, extension);
+    }
+
+    public Path resolve(String publicPath) {
+        if (publicPath == null || !publicPath.startsWith(PUBLIC_PREFIX)) {
+            throw new IllegalArgumentException("Not an upload path: " + publicPath);
+        }
+        Path file = uploadDir.resolve(publicPath.substring(PUBLIC_PREFIX.length())).normalize();
+        if (!file.startsWith(uploadDir)) {
+            throw new IllegalArgumentException("Not an upload path: " + publicPath);
+        }
+        return file;
+    }
+
+    // Returns the file extension matching the detected format.
+    private String copyValidated(MultipartFile image, MessageDigest digest, Path target) throws IOException {
+        try (InputStream in = new DigestInputStream(image.getInputStream(), digest);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] magic = in.readNBytes(MAGIC_LENGTH);
+            String extension = detectExtension(magic);
+            if (extension == null) {
+                throw new InvalidUploadException("File content is not a supported image");
+            }
+            out.write(ByteBuffer.wrap(magic));
+
+            // Ask for one byte more than allowed so an oversized body is detected without reading all of it.
+            long remaining = maxImageBytes - magic.length + 1;
+            long copied = out.transferFrom(Channels.newChannel(in), magic.length, remaining);
+            if (magic.length + copied > maxImageBytes) {
+                throw new InvalidUploadException("Image exceeds the maximum size of " + maxImageBytes + " bytes");
+            }
+            return extension;
+        }
+    }
+
+    private static String detectExtension(byte[] b) {
+        if (b.length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (b.length >= 4 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "png";
+        }
+        if (b.length >= 4 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "gif";
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.mupro.nshakira.storage;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_blob")
+public class StoredBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private long size;
+
+    private String extension;
+
+    private long refCount;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public StoredBlob() {}
+
+    // Getters and Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getExtension() { return extension; }
+    public void setExtension(String extension) { this.extension = extension; }
+
+    public long getRefCount() { return refCount; }
+    public void setRefCount(long refCount) { this.refCount = refCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,30 @@
+package org.mupro.nshakira.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Insert-or-increment in one statement, so concurrent uploads of the same bytes cannot lose a reference.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into stored_blob (hash, size, extension, ref_count, created_at)
+            values (:hash, :size, :extension, 1, now())
+            on conflict (hash) do update set ref_count = stored_blob.ref_count + 1
+            """, nativeQuery = true)
+    void acquire(@Param("hash") String hash, @Param("size") long size, @Param("extension") String extension);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount - 1 where b.hash = :hash and b.refCount > 0")
+    int release(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StoredBlob b where b.hash = :hash and b.refCount = 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,46 @@
+package org.mupro.nshakira.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tokens used to be stored raw in token.token. Hashes them into token_hash, gives rows without an expiry the old
+// 24h lifetime from now so the revocation index and sweeper can handle them, then drops the raw column. Runs before
+// the ApplicationReadyEvent listeners that load the revocation index; a no-op once the column is gone.
+@Component
+public class LegacyTokenMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyTokenMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LegacyTokenMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer legacyColumns = jdbcTemplate.queryForObject("""
+                    select count(*) from information_schema.columns
+                    where table_name = 'token' and column_name = 'token'
+                    """, Integer.class);
+            if (legacyColumns == null || legacyColumns == 0) {
+                return;
+            }
+            int hashed = jdbcTemplate.update("""
+                    update token set token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+                    where token_hash is null and token is not null
+                    """);
+            jdbcTemplate.update("update token set expires_at = now() + interval '1 day' where expires_at is null");
+            jdbcTemplate.execute("alter table token drop column token");
+            log.info("Migrated {} stored tokens to SHA-256 hashes", hashed);
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate legacy token column: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package org.mupro.nshakira.token;
+
+import java.time.LocalDateTime;
+
+public record RevokedToken(String tokenHash, LocalDateTime expiresAt) {}
@@ -3,14 +3,19 @@ package org.mupro.nshakira.token;
 import jakarta.persistence.*;
 import org.mupro.nshakira.user.User;
 
+import java.time.LocalDateTime;
+
+// Stores the SHA-256 of a token rather than the token itself: a leaked table grants no sessions, and the
+// fixed-width 64-character key keeps the unique index small.
 @Entity
+@Table(indexes = @Index(name = "idx_token_expires_at", columnList = "expires_at"))
 public class Token {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true)
-    private String token;
+    @Column(name = "token_hash", unique = true, columnDefinition = "char(64)")
+    private String tokenHash;
 
     @Enumerated(EnumType.STRING)
     private TokenType tokenType = TokenType.BEARER;
@@ -18,19 +23,21 @@ public class Token {
     private boolean revoked;
     private boolean expired;
 
+    private LocalDateTime expiresAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
     public Token(){}
-    public Token(String token, boolean revoked, boolean expired, User user) {
-        this.token = token;
+    public Token(String tokenHash, boolean revoked, boolean expired, User user) {
+        this.tokenHash = tokenHash;
         this.revoked = revoked;
         this.expired = expired;
         this.user = user;
     }
-    public Token(String token, TokenType tokenType, boolean revoked, boolean expired, User user) {
-        this.token = token;
+    public Token(String tokenHash, TokenType tokenType, boolean revoked, boolean expired, User user) {
+        this.tokenHash = tokenHash;
         this.tokenType = tokenType;
         this.revoked = revoked;
         this.expired = expired;
@@ -45,12 +52,12 @@ public class Token {
         this.id = id;
     }
 
-    public String getToken() {
-        return token;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
     }
 
     public TokenType getTokenType() {
@@ -77,6 +84,14 @@ public class Token {
         this.expired = expired;
     }
 
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     public User getUser() {
         return user;
     }
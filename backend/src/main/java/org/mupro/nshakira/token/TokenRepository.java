@@ -2,8 +2,13 @@ package org.mupro.nshakira.token;
 
 import org.mupro.nshakira.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +17,34 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
 
     List<Token> findAllByUser(User user);
 
-    Optional<Token> findByToken(String token);
+    Optional<Token> findByTokenHash(String tokenHash);
     List<Token> findAllValidTokenByUser(User user);
+
+    @Query("""
+            select new org.mupro.nshakira.token.RevokedToken(t.tokenHash, t.expiresAt)
+            from Token t
+            where t.revoked = true and t.tokenType = org.mupro.nshakira.token.TokenType.BEARER
+              and t.expiresAt > :now
+            """)
+    List<RevokedToken> findRevokedUnexpired(@Param("now") LocalDateTime now);
+
+    // Returns 0 when the token was already revoked, which for a refresh token means it is being replayed.
+    @Transactional
+    @Modifying
+    @Query("update Token t set t.revoked = true, t.expired = true where t.id = :id and t.revoked = false")
+    int revokeIfActive(@Param("id") Long id);
+
+    // Expired rows only. Rotated or revoked refresh rows stay until they expire, because presenting one again is how
+    // a replayed refresh token is recognised. Rows locked by a concurrent refresh are skipped rather than waited for,
+    // and each call is its own short transaction.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from token where id in (
+                select id from token
+                where expires_at < :now
+                limit :batchSize
+                for update skip locked)
+            """, nativeQuery = true)
+    int deleteStaleBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
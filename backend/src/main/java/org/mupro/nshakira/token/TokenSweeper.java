@@ -0,0 +1,50 @@
+package org.mupro.nshakira.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Deletes token rows nobody can use any more, a bounded batch per transaction so no run holds locks for long.
+@Component
+public class TokenSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenSweeper.class);
+
+    private final TokenRepository tokenRepository;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter swept;
+
+    public TokenSweeper(TokenRepository tokenRepository,
+                        @Value("${token.sweeper.batch-size:1000}") int batchSize,
+                        @Value("${token.sweeper.max-batches-per-run:100}") int maxBatchesPerRun,
+                        MeterRegistry registry) {
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.swept = Counter.builder("auth.tokens.swept").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${token.sweeper.interval:600000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = tokenRepository.deleteStaleBatch(now, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        swept.increment(total);
+        if (total > 0) {
+            log.info("Token sweeper deleted {} rows", total);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.mupro.nshakira.token;
 
 public enum TokenType {
-    BEARER
+    BEARER,
+    REFRESH
 }
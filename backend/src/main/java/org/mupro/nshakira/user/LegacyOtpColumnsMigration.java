@@ -0,0 +1,40 @@
+package org.mupro.nshakira.user;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// One-time codes used to live on the users row (otp, otp_generated_at). They are now kept in the verification
+// store, so the old columns are dropped; outstanding codes simply have to be requested again.
+@Component
+public class LegacyOtpColumnsMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyOtpColumnsMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LegacyOtpColumnsMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer legacyColumns = jdbcTemplate.queryForObject("""
+                    select count(*) from information_schema.columns
+                    where table_name = 'users' and column_name in ('otp', 'otp_generated_at')
+                    """, Integer.class);
+            if (legacyColumns == null || legacyColumns == 0) {
+                return;
+            }
+            jdbcTemplate.execute("alter table users drop column if exists otp, drop column if exists otp_generated_at");
+            log.info("Dropped legacy OTP columns from users");
+        } catch (DataAccessException e) {
+            log.warn("Could not drop legacy OTP columns: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.mupro.nshakira.user;
+
+public record ReporterSummary(Long id, String name) {
+
+    public static ReporterSummary of(User user) {
+        return user == null ? null : new ReporterSummary(user.getId(), user.getName());
+    }
+}
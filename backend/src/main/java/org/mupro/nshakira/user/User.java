@@ -1,10 +1,10 @@
 package org.mupro.nshakira.user;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -28,29 +28,20 @@ public class User implements UserDetails {
 
     private boolean enabled;
 
-    private String otp;
-
-    private LocalDateTime otpGeneratedAt = LocalDateTime.now();
+    // Embedded in every JWT as "ver"; bumping it invalidates all of the user's tokens at once. Only ever changed by
+    // UserRepository.incrementTokenVersion, so a stale entity can never write an old value back.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int tokenVersion;
 
     public User() {}
 
-    public User(String name, String email, String password, Role role, boolean enabled, String otp, LocalDateTime otpGeneratedAt) {
+    public User(String name, String email, String password, Role role, boolean enabled) {
         this.name = name;
         this.email = email;
         this.password = password;
         this.role = role;
         this.enabled = enabled;
-        this.otp = otp;
-        this.otpGeneratedAt = otpGeneratedAt;
-    }
-
-    public User(String name, String email, String password, Role role, boolean enabled, String otp) {
-        this.name = name;
-        this.email = email;
-        this.password = password;
-        this.role = role;
-        this.enabled = enabled;
-        this.otp = otp;
     }
 
     // Getters and Setters
@@ -74,11 +65,8 @@ public class User implements UserDetails {
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
-    public String getOtp() { return otp; }
-    public void setOtp(String otp) { this.otp = otp; }
-
-    public LocalDateTime getOtpGeneratedAt() { return otpGeneratedAt; }
-    public void setOtpGeneratedAt(LocalDateTime otpGeneratedAt) { this.otpGeneratedAt = otpGeneratedAt; }
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
 
     // UserDetails interface methods
     @Override
@@ -0,0 +1,59 @@
+package org.mupro.nshakira.verification;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+
+// Store shared by every node, for multi-instance deployments (verification.store=database). verify locks the row
+// and runs in its own transaction, so a failed attempt still counts when the caller's transaction rolls back.
+@Component
+@ConditionalOnProperty(name = "verification.store", havingValue = "database")
+public class DatabaseVerificationCodeStore implements VerificationCodeStore {
+
+    private final VerificationCodeRepository verificationCodeRepository;
+
+    public DatabaseVerificationCodeStore(VerificationCodeRepository verificationCodeRepository) {
+        this.verificationCodeRepository = verificationCodeRepository;
+    }
+
+    @Override
+    @Transactional
+    public void save(String key, String codeDigest, LocalDateTime expiresAt) {
+        verificationCodeRepository.save(new VerificationCode(key, codeDigest, expiresAt));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public VerificationResult verify(String key, String codeDigest, int maxAttempts, LocalDateTime now) {
+        VerificationCode code = verificationCodeRepository.lockByKey(key).orElse(null);
+        if (code == null) {
+            return VerificationResult.EXPIRED;
+        }
+        if (code.getExpiresAt().isBefore(now)) {
+            verificationCodeRepository.delete(code);
+            return VerificationResult.EXPIRED;
+        }
+        if (MessageDigest.isEqual(code.getCodeHash().getBytes(StandardCharsets.US_ASCII),
+                codeDigest.getBytes(StandardCharsets.US_ASCII))) {
+            verificationCodeRepository.delete(code);
+            return VerificationResult.VALID;
+        }
+        int attempts = code.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            verificationCodeRepository.delete(code);
+            return VerificationResult.LOCKED;
+        }
+        code.setAttempts(attempts);
+        return VerificationResult.INVALID;
+    }
+
+    @Override
+    public void purgeExpired(LocalDateTime now) {
+        verificationCodeRepository.deleteExpired(now);
+    }
+}
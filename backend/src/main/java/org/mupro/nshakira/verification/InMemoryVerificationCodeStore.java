@@ -0,0 +1,53 @@
+package org.mupro.nshakira.verification;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Single-node store: entries expire lazily on verify and in bulk on each purge. Each verify runs inside
+// ConcurrentHashMap.compute, so concurrent guesses against one code are counted one at a time.
+@Component
+@ConditionalOnProperty(name = "verification.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final ConcurrentHashMap<String, Entry> codes = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(String key, String codeDigest, LocalDateTime expiresAt) {
+        codes.put(key, new Entry(codeDigest, expiresAt, 0));
+    }
+
+    @Override
+    public VerificationResult verify(String key, String codeDigest, int maxAttempts, LocalDateTime now) {
+        VerificationResult[] result = {VerificationResult.EXPIRED};
+        codes.computeIfPresent(key, (k, entry) -> {
+            if (entry.expiresAt().isBefore(now)) {
+                return null;
+            }
+            if (MessageDigest.isEqual(entry.codeDigest().getBytes(StandardCharsets.US_ASCII),
+                    codeDigest.getBytes(StandardCharsets.US_ASCII))) {
+                result[0] = VerificationResult.VALID;
+                return null;
+            }
+            int attempts = entry.attempts() + 1;
+            if (attempts >= maxAttempts) {
+                result[0] = VerificationResult.LOCKED;
+                return null;
+            }
+            result[0] = VerificationResult.INVALID;
+            return new Entry(entry.codeDigest(), entry.expiresAt(), attempts);
+        });
+        return result[0];
+    }
+
+    @Override
+    public void purgeExpired(LocalDateTime now) {
+        codes.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+    }
+
+    private record Entry(String codeDigest, LocalDateTime expiresAt, int attempts) {}
+}
@@ -0,0 +1,44 @@
+package org.mupro.nshakira.verification;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "verification_code",
+        indexes = @Index(name = "idx_verification_code_expires_at", columnList = "expires_at"))
+public class VerificationCode {
+
+    @Id
+    @Column(name = "code_key", length = 320)
+    private String key;
+
+    @Column(name = "code_hash", nullable = false, columnDefinition = "char(64)")
+    private String codeHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    private int attempts;
+
+    public VerificationCode() {}
+
+    public VerificationCode(String key, String codeHash, LocalDateTime expiresAt) {
+        this.key = key;
+        this.codeHash = codeHash;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public String getCodeHash() { return codeHash; }
+    public void setCodeHash(String codeHash) { this.codeHash = codeHash; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
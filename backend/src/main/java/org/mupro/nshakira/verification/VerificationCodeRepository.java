@@ -0,0 +1,24 @@
+package org.mupro.nshakira.verification;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface VerificationCodeRepository extends JpaRepository<VerificationCode, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from VerificationCode c where c.key = :key")
+    Optional<VerificationCode> lockByKey(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from VerificationCode c where c.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
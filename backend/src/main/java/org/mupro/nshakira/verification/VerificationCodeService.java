@@ -0,0 +1,66 @@
+package org.mupro.nshakira.verification;
+
+import org.mupro.nshakira.exception.InvalidOtpException;
+import org.mupro.nshakira.security.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Issues and checks six-digit codes for OTP sign-in and password reset. Codes come from SecureRandom, only their
+// digest is stored, each expires after verification.code-ttl and allows verification.max-attempts guesses.
+@Service
+public class VerificationCodeService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final VerificationCodeStore store;
+    private final Duration ttl;
+    private final int maxAttempts;
+
+    public VerificationCodeService(VerificationCodeStore store,
+                                   @Value("${verification.code-ttl:10m}") Duration ttl,
+                                   @Value("${verification.max-attempts:5}") int maxAttempts) {
+        this.store = store;
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Returns the code to send; any earlier code for the same purpose and email stops working.
+    public String issue(VerificationPurpose purpose, String email) {
+        String code = String.format("%06d", RANDOM.nextInt(1_000_000));
+        String key = key(purpose, email);
+        store.save(key, digest(key, code), LocalDateTime.now().plus(ttl));
+        return code;
+    }
+
+    public void verify(VerificationPurpose purpose, String email, String code) {
+        if (email == null || code == null) {
+            throw new InvalidOtpException("Invalid code");
+        }
+        String key = key(purpose, email);
+        switch (store.verify(key, digest(key, code.trim()), maxAttempts, LocalDateTime.now())) {
+            case VALID -> { }
+            case INVALID -> throw new InvalidOtpException("Invalid code");
+            case EXPIRED -> throw new InvalidOtpException("Code has expired, request a new one");
+            case LOCKED -> throw new InvalidOtpException("Too many attempts, request a new code");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${verification.purge-interval:60000}")
+    public void purgeExpired() {
+        store.purgeExpired(LocalDateTime.now());
+    }
+
+    private static String key(VerificationPurpose purpose, String email) {
+        return purpose + ":" + email;
+    }
+
+    // Salted with the key so equal codes for different users or purposes never share a digest.
+    private static String digest(String key, String code) {
+        return TokenDigest.of(key + ":" + code);
+    }
+}
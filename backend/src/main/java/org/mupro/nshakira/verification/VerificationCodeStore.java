@@ -0,0 +1,15 @@
+package org.mupro.nshakira.verification;
+
+import java.time.LocalDateTime;
+
+// Outstanding one-time codes, keyed by purpose and email. Stores only ever see a digest of the code. verify counts
+// the attempt and consumes the code on a match, on expiry and when the attempts run out, atomically per key.
+public interface VerificationCodeStore {
+
+    // Replaces any code already outstanding for the key, resetting its attempts.
+    void save(String key, String codeDigest, LocalDateTime expiresAt);
+
+    VerificationResult verify(String key, String codeDigest, int maxAttempts, LocalDateTime now);
+
+    void purgeExpired(LocalDateTime now);
+}
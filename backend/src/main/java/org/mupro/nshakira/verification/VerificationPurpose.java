@@ -0,0 +1,6 @@
+package org.mupro.nshakira.verification;
+
+public enum VerificationPurpose {
+    LOGIN_OTP,
+    PASSWORD_RESET
+}
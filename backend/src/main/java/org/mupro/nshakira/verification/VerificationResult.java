@@ -0,0 +1,10 @@
+package org.mupro.nshakira.verification;
+
+public enum VerificationResult {
+    VALID,
+    INVALID,
+    // No outstanding code: never issued, expired, or already used.
+    EXPIRED,
+    // This attempt used up the last one; the code is gone.
+    LOCKED
+}
@@ -0,0 +1,52 @@
+package org.mupro.nshakira.claim;
+
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.user.Role;
+import org.mupro.nshakira.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The bulk decision endpoint through the full security chain, with principals carrying the authorities Role grants.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claim-decisions;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureMockMvc
+class ClaimDecisionEndpointTest {
+
+    private static final String BODY = """
+            {"decisions": [{"claimId": 999999, "status": "APPROVED"}]}
+            """;
+
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    void adminCanDecideClaims() throws Exception {
+        mockMvc.perform(post("/api/claims/decisions")
+                        .with(user(new User("Admin", "admin@example.com", "hash", Role.ADMIN, true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("NOT_FOUND"));
+    }
+
+    @Test
+    void userCannotDecideClaims() throws Exception {
+        mockMvc.perform(post("/api/claims/decisions")
+                        .with(user(new User("User", "user@example.com", "hash", Role.USER, true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isForbidden());
+    }
+}
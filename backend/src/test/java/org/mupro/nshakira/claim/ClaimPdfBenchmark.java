@@ -0,0 +1,74 @@
+package org.mupro.nshakira.claim;
+
+import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.mupro.nshakira.common.ItemType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+// Time to render the approved-claims PDF at 10k, 100k and 1M claims, discarding the bytes. The fork runs with a
+// fixed 64 MB heap whatever the size, so rendering 1M claims in it shows memory does not grow with the report.
+// Add -prof gc for allocation rates.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.mupro.nshakira.claim.ClaimPdfBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class ClaimPdfBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int claims;
+
+    private final ClaimPdfRenderer renderer = new ClaimPdfRenderer();
+
+    @Benchmark
+    public void render() throws IOException {
+        renderer.render("Approved claims", syntheticClaims(claims), OutputStream.nullOutputStream());
+    }
+
+    // Generated on demand, as the keyset chunks are in production, so the source holds no rows itself.
+    private static Iterator<ClaimResponse> syntheticClaims(int count) {
+        LocalDateTime submitted = LocalDateTime.of(2025, 1, 1, 9, 0);
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public ClaimResponse next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                long id = ++next;
+                return new ClaimResponse(id, "claimer" + (id % 5000) + "@example.com", id, ItemType.LOST,
+                        "Black backpack left in lecture hall " + (id % 40), ClaimStatus.APPROVED, submitted, 0L);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ClaimPdfBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package org.mupro.nshakira.claim;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.claim.dto.ClaimResponse;
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.user.Role;
+import org.mupro.nshakira.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ClaimRepositoryTest {
+
+    @Autowired private ClaimRepository repository;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        ClaimStatus[] statuses = ClaimStatus.values();
+        for (int u = 0; u < 10; u++) {
+            User claimer = entityManager.persist(
+                    new User("Claimer " + u, "claimer" + u + "@example.com", "hash", Role.USER, true));
+            for (int i = 0; i < 6; i++) {
+                entityManager.persist(Claim.builder()
+                        .itemType(ItemType.LOST)
+                        .reason("Mine " + u + "-" + i)
+                        .claimer(claimer)
+                        .status(statuses[i % statuses.length])
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void queuePageIsASingleStatementWhateverTheNumberOfClaimers() {
+        List<ClaimResponse> firstPage = repository.findQueueFirstPage(ClaimStatus.PENDING, Limit.of(11));
+        assertEquals(11, firstPage.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        ClaimResponse last = firstPage.get(firstPage.size() - 1);
+        List<ClaimResponse> secondPage =
+                repository.findQueuePageAfter(ClaimStatus.PENDING, last.claimId(), Limit.of(11));
+        assertEquals(9, secondPage.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        assertTrue(secondPage.get(0).claimId() > last.claimId());
+        assertTrue(secondPage.stream().allMatch(claim -> claim.status() == ClaimStatus.PENDING && !claim.approved()));
+    }
+
+    @Test
+    void unfilteredPagesWalkEveryClaimInIdOrder() {
+        List<ClaimResponse> all = new ArrayList<>(repository.findAllFirstPage(Limit.of(25)));
+        while (true) {
+            List<ClaimResponse> next =
+                    repository.findAllPageAfter(all.get(all.size() - 1).claimId(), Limit.of(25));
+            if (next.isEmpty()) {
+                break;
+            }
+            all.addAll(next);
+        }
+
+        assertEquals(60, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i).claimId() > all.get(i - 1).claimId());
+        }
+    }
+
+    @Test
+    void decidePendingIsOneStatementAndOnlyTouchesPendingClaims() {
+        List<Long> ids = repository.findAllFirstPage(Limit.of(6)).stream().map(ClaimResponse::claimId).toList();
+        statistics.clear();
+
+        int updated = repository.decidePending(ids, ClaimStatus.REJECTED, LocalDateTime.now());
+
+        assertEquals(2, updated);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        List<ClaimState> states = repository.findStates(ids);
+        assertEquals(4, states.stream().filter(state -> state.status() == ClaimStatus.REJECTED).count());
+        assertTrue(states.stream().noneMatch(state -> state.status() == ClaimStatus.PENDING));
+        assertEquals(2, states.stream().filter(state -> state.version() == 1).count());
+    }
+}
@@ -0,0 +1,157 @@
+package org.mupro.nshakira.claim;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.claim.dto.ClaimDecision;
+import org.mupro.nshakira.claim.dto.ClaimDecisionResult;
+import org.mupro.nshakira.common.ItemType;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.mupro.nshakira.user.Role;
+import org.mupro.nshakira.user.User;
+import org.mupro.nshakira.user.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Several admins deciding claims at once, each call in its own transaction as it would be behind the controller.
+// Test transactions are disabled so the calls see each other's commits.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ClaimService.class, ClaimPdfRenderer.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClaimServiceTest {
+
+    private static final int ADMINS = 8;
+
+    @Autowired private ClaimService claimService;
+    @Autowired private ClaimRepository claimRepository;
+    @Autowired private LostItemRepository lostItemRepository;
+    @Autowired private FoundItemRepository foundItemRepository;
+    @Autowired private UserRepository userRepository;
+
+    private User claimer;
+
+    @BeforeEach
+    void setUp() {
+        claimer = userRepository.save(new User("Claimer", "claimer@example.com", "hash", Role.USER, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        claimRepository.deleteAll();
+        lostItemRepository.deleteAll();
+        foundItemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentApprovalsOfOneItemLetExactlyOneThrough() throws Exception {
+        LostItem item = lostItemRepository.save(
+                new LostItem("Blue umbrella", "Folded, wooden handle", "Library", LocalDateTime.now(), false, null));
+        List<Callable<ClaimDecisionResult>> approvals = new ArrayList<>();
+        for (int i = 0; i < ADMINS; i++) {
+            Long claimId = claim(ItemType.LOST, item.getId());
+            approvals.add(() -> claimService.decide(List.of(approve(claimId))).get(0));
+        }
+
+        List<ClaimDecisionResult> results = runTogether(approvals);
+
+        assertEquals(1, results.stream().filter(r -> r.outcome() == ClaimDecisionOutcome.APPLIED).count());
+        assertEquals(ADMINS - 1, results.stream().filter(r -> r.outcome() == ClaimDecisionOutcome.ITEM_CLAIMED).count());
+        assertEquals(1, claimRepository.countByStatus(ClaimStatus.APPROVED));
+        assertTrue(lostItemRepository.findById(item.getId()).orElseThrow().isResolved());
+    }
+
+    @Test
+    void disjointBatchesApprovedConcurrentlyAllApplyAndReturnTheirItems() throws Exception {
+        int perAdmin = 25;
+        List<Callable<List<ClaimDecisionResult>>> batches = new ArrayList<>();
+        List<Long> itemIds = new ArrayList<>();
+        for (int a = 0; a < ADMINS; a++) {
+            List<ClaimDecision> batch = new ArrayList<>();
+            for (int i = 0; i < perAdmin; i++) {
+                FoundItem item = foundItemRepository.save(
+                        new FoundItem("Keys " + a + "-" + i, "Three keys on a ring", "Cafeteria", LocalDateTime.now(),
+                                false, null));
+                itemIds.add(item.getId());
+                batch.add(approve(claim(ItemType.FOUND, item.getId())));
+            }
+            batches.add(() -> claimService.decide(batch));
+        }
+
+        List<List<ClaimDecisionResult>> results = runTogether(batches);
+
+        assertTrue(results.stream().flatMap(List::stream)
+                .allMatch(r -> r.outcome() == ClaimDecisionOutcome.APPLIED && r.version() == 1));
+        assertEquals(ADMINS * perAdmin, claimRepository.countByStatus(ClaimStatus.APPROVED));
+        assertTrue(foundItemRepository.findAllById(itemIds).stream().allMatch(FoundItem::isReturned));
+    }
+
+    @Test
+    void secondApprovalOfAnItemInOneRequestIsRejected() {
+        LostItem item = lostItemRepository.save(
+                new LostItem("Wallet", "Brown leather", "Gym", LocalDateTime.now(), false, null));
+        Long first = claim(ItemType.LOST, item.getId());
+        Long second = claim(ItemType.LOST, item.getId());
+
+        List<ClaimDecisionResult> results = claimService.decide(List.of(approve(first), approve(second)));
+
+        assertEquals(ClaimDecisionOutcome.APPLIED, results.get(0).outcome());
+        assertEquals(ClaimDecisionOutcome.ITEM_CLAIMED, results.get(1).outcome());
+        assertEquals(ClaimStatus.PENDING, claimRepository.findById(second).orElseThrow().getStatus());
+    }
+
+    private Long claim(ItemType itemType, Long itemId) {
+        return claimRepository.save(Claim.builder()
+                .itemType(itemType)
+                .itemId(itemId)
+                .reason("It is mine")
+                .claimer(claimer)
+                .build()).getId();
+    }
+
+    private static ClaimDecision approve(Long claimId) {
+        return new ClaimDecision(claimId, ClaimStatus.APPROVED, null);
+    }
+
+    // Releases every task at the same moment, one thread each.
+    private static <T> List<T> runTogether(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.mupro.nshakira.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOnceFull() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 3, Duration.ofMinutes(1));
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        cache.getIfPresent("a");
+
+        cache.get("d", String::toUpperCase);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.getIfPresent("b"));
+        assertEquals("A", cache.getIfPresent("a"));
+        assertEquals("D", cache.getIfPresent("d"));
+    }
+
+    @Test
+    void segmentsTogetherStayWithinMaxSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>("test", 1000, Duration.ofMinutes(1));
+        for (int i = 0; i < 5000; i++) {
+            cache.get(i, k -> k);
+        }
+
+        assertEquals(1000, cache.size());
+        assertEquals(4999, cache.getIfPresent(4999));
+    }
+
+    @Test
+    void expiredEntriesAreLoadedAgain() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>("test", 10, Duration.ofMillis(50));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("key", k -> loads.incrementAndGet());
+        cache.get("key", k -> loads.incrementAndGet());
+        assertEquals(1, loads.get());
+
+        Thread.sleep(100);
+        assertNull(cache.getIfPresent("key"));
+        assertEquals(2, cache.get("key", k -> loads.incrementAndGet()));
+
+        // A shorter per-entry ttl wins; a non-positive one is not stored at all.
+        cache.put("short", 1, Duration.ZERO);
+        assertNull(cache.getIfPresent("short"));
+    }
+
+    @Test
+    void concurrentMissesOnOneKeyShareASingleLoad() throws Exception {
+        BoundedCache<String, Integer> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.get("key", k -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Give the other threads time to reach the in-flight load before it completes.
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> future : futures) {
+                assertEquals(42, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheStaleResultOut() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>("test", 10, Duration.ofMinutes(1));
+
+        Integer loaded = cache.get("key", k -> {
+            cache.invalidate("key");
+            return 1;
+        });
+
+        assertEquals(1, loaded);
+        assertNull(cache.getIfPresent("key"));
+    }
+}
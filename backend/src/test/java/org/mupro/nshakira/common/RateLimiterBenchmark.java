@@ -0,0 +1,68 @@
+package org.mupro.nshakira.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of the rate limiter under contention: 8 threads over 10k client keys (the common case), and all
+// threads hammering one key (the worst case for the CAS loop). Results are in nanoseconds per decision.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.mupro.nshakira.common.RateLimiterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter mostlyAllowed;
+    private RateLimiter mostlyRejected;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        mostlyAllowed = new RateLimiter("allowed", 1_000_000_000, Duration.ofSeconds(1));
+        mostlyRejected = new RateLimiter("rejected", 10, Duration.ofMinutes(1));
+        keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+        }
+    }
+
+    @Benchmark
+    public long manyClientsAllowed() {
+        return mostlyAllowed.tryAcquire(keys[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public long manyClientsRejected() {
+        return mostlyRejected.tryAcquire(keys[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public long singleHotClient() {
+        return mostlyAllowed.tryAcquire(keys[0]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package org.mupro.nshakira.email;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the outbox against GreenMail, an in-process SMTP server. Test transactions are disabled so the dispatcher's
+// own transactions see committed rows, as they would in production.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.mail.username=noreply@nshakira.test"
+})
+@Import({EmailService.class, OutboxDispatcher.class, OutboxDispatcherTest.MailConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatcherTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired private EmailService emailService;
+    @Autowired private OutboxDispatcher outboxDispatcher;
+    @Autowired private OutboxEmailRepository repository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void emailIsSentAfterTheCallerCommits() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.sendOtpEmail("user@example.com", "123456"));
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Your OTP for Login", received.getSubject());
+        awaitStatus(OutboxStatus.SENT, 1);
+    }
+
+    @Test
+    void rolledBackTransactionSendsNothing() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            emailService.sendOtpEmail("user@example.com", "123456");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, repository.count());
+        assertFalse(greenMail.waitForIncomingEmail(500, 1));
+    }
+
+    @Test
+    void backlogIsSentInBatches() {
+        List<OutboxEmail> backlog = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            backlog.add(new OutboxEmail("user" + i + "@example.com", "Subject " + i, "Body " + i));
+        }
+        repository.saveAll(backlog);
+
+        assertEquals(50, outboxDispatcher.dispatchBatch());
+        assertEquals(50, outboxDispatcher.dispatchBatch());
+        assertEquals(20, outboxDispatcher.dispatchBatch());
+        assertEquals(0, outboxDispatcher.dispatchBatch());
+
+        assertEquals(120, greenMail.getReceivedMessages().length);
+        assertEquals(120, repository.countByStatus(OutboxStatus.SENT));
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoffThenDeadLettered() throws IOException {
+        OutboxDispatcher unreachable = new OutboxDispatcher(repository, sender(unusedPort()), transactionManager,
+                new SimpleMeterRegistry(), "noreply@nshakira.test", 1, 50, 2,
+                Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofDays(7));
+        OutboxEmail email = repository.save(new OutboxEmail("user@example.com", "Subject", "Body"));
+
+        assertEquals(1, unreachable.dispatchBatch());
+        OutboxEmail afterFirstFailure = repository.findById(email.getId()).orElseThrow();
+        assertEquals(OutboxStatus.PENDING, afterFirstFailure.getStatus());
+        assertEquals(1, afterFirstFailure.getAttempts());
+        assertTrue(afterFirstFailure.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(50)));
+
+        // Not due yet, so nothing is taken.
+        assertEquals(0, unreachable.dispatchBatch());
+
+        afterFirstFailure.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        repository.save(afterFirstFailure);
+        assertEquals(1, unreachable.dispatchBatch());
+
+        OutboxEmail dead = repository.findById(email.getId()).orElseThrow();
+        assertEquals(OutboxStatus.DEAD, dead.getStatus());
+        assertEquals(2, dead.getAttempts());
+    }
+
+    private void awaitStatus(OutboxStatus status, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (repository.countByStatus(status) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, repository.countByStatus(status));
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static JavaMailSenderImpl sender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(port);
+        sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return sender;
+    }
+
+    @TestConfiguration
+    static class MailConfig {
+
+        @Bean
+        JavaMailSender mailSender() {
+            return sender(ServerSetupTest.SMTP.getPort());
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
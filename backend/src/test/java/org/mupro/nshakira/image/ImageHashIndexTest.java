@@ -0,0 +1,84 @@
+package org.mupro.nshakira.image;
+
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.common.ItemType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageHashIndexTest {
+
+    private final ImageHashIndex index = new ImageHashIndex();
+
+    @Test
+    void searchFindsExactlyWhatAFullScanFinds() {
+        Random random = new Random(11);
+        long query = random.nextLong();
+        List<long[]> stored = new ArrayList<>();
+        for (long id = 0; id < 5000; id++) {
+            // A third are near-duplicates of the query with up to 20 bits flipped, the rest unrelated.
+            long hash = id % 3 == 0 ? flip(query, (int) (id % 21), random) : random.nextLong();
+            index.upsert(ItemType.values()[(int) (id % 2)], id, hash);
+            stored.add(new long[] {id, hash});
+        }
+
+        for (int maxDistance : new int[] {0, 3, 4, 8, 12, ImageHashIndex.MAX_DISTANCE}) {
+            List<Long> expected = stored.stream()
+                    .filter(s -> PerceptualHash.distance(query, s[1]) <= maxDistance)
+                    .sorted(Comparator.comparingInt((long[] s) -> PerceptualHash.distance(query, s[1])))
+                    .map(s -> s[0])
+                    .toList();
+            List<SimilarImage> found = index.search(query, maxDistance, Integer.MAX_VALUE);
+
+            assertEquals(expected.size(), found.size(), "maxDistance " + maxDistance);
+            for (int i = 0; i < found.size(); i++) {
+                assertEquals(PerceptualHash.distance(query, stored.get(expected.get(i).intValue())[1]),
+                        found.get(i).distance());
+            }
+        }
+    }
+
+    @Test
+    void reindexedAndRemovedItemsAreNotReturned() {
+        long hash = 0x0123_4567_89AB_CDEFL;
+        index.upsert(ItemType.LOST, 1, hash);
+        index.upsert(ItemType.FOUND, 1, hash ^ 0b111);
+        index.upsert(ItemType.FOUND, 2, hash ^ 0b1);
+
+        index.upsert(ItemType.LOST, 1, ~hash);
+        index.remove(ItemType.FOUND, 2);
+
+        List<SimilarImage> found = index.search(hash, 4, 10);
+        assertEquals(List.of(new SimilarImage(ItemType.FOUND, 1L, 3)), found);
+        assertEquals(~hash, index.hashOf(ItemType.LOST, 1));
+        assertNull(index.hashOf(ItemType.FOUND, 2));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void resultsAreNearestFirstAndLimited() {
+        long hash = 0L;
+        index.upsert(ItemType.LOST, 1, 0b1111);
+        index.upsert(ItemType.LOST, 2, 0b1);
+        index.upsert(ItemType.LOST, 3, 0b11);
+
+        List<SimilarImage> found = index.search(hash, 8, 2);
+
+        assertEquals(List.of(new SimilarImage(ItemType.LOST, 2L, 1), new SimilarImage(ItemType.LOST, 3L, 2)), found);
+        assertThrows(IllegalArgumentException.class, () -> index.search(hash, ImageHashIndex.MAX_DISTANCE + 1, 10));
+    }
+
+    private static long flip(long hash, int bits, Random random) {
+        long result = hash;
+        while (Long.bitCount(result ^ hash) < bits) {
+            result ^= 1L << random.nextInt(64);
+        }
+        return result;
+    }
+}
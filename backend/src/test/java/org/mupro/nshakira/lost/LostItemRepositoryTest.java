@@ -0,0 +1,97 @@
+package org.mupro.nshakira.lost;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.lost.dto.LostItemResponse;
+import org.mupro.nshakira.user.Role;
+import org.mupro.nshakira.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LostItemRepositoryTest {
+
+    @Autowired private LostItemRepository repository;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int u = 0; u < 10; u++) {
+            User reporter = entityManager.persist(
+                    new User("Reporter " + u, "reporter" + u + "@example.com", "hash", Role.USER, true));
+            for (int i = 0; i < 5; i++) {
+                LostItem item = new LostItem("Item " + u + "-" + i, "Description", "Library",
+                        start.plusHours(u * 5L + i), null);
+                item.setReportedBy(reporter);
+                entityManager.persist(item);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingPageIsASingleStatementWhateverTheNumberOfReporters() {
+        List<LostItemResponse> firstPage = repository.findFirstPage(Limit.of(21));
+        assertEquals(21, firstPage.size());
+        assertNotNull(firstPage.get(0).reportedBy());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        LostItemResponse last = firstPage.get(firstPage.size() - 1);
+        List<LostItemResponse> secondPage = repository.findPageAfter(last.lostDate(), last.id(), Limit.of(21));
+        assertEquals(21, secondPage.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void detailLookupIsASingleStatement() {
+        Long id = repository.findFirstPage(Limit.of(1)).get(0).id();
+        statistics.clear();
+
+        LostItemResponse response = repository.findResponseById(id).orElseThrow();
+
+        assertNotNull(response.reportedBy());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void undatedItemsArePagedByIdAfterTheDatedOnes() {
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(new LostItem("Undated " + i, "Description", "Library", null, null));
+        }
+        entityManager.flush();
+
+        List<LostItemResponse> firstPage = repository.findUndatedPageAfter(Long.MAX_VALUE, Limit.of(2));
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.get(0).id() > firstPage.get(1).id());
+
+        List<LostItemResponse> secondPage = repository.findUndatedPageAfter(firstPage.get(1).id(), Limit.of(2));
+        assertEquals(1, secondPage.size());
+        assertNull(secondPage.get(0).lostDate());
+        assertEquals(50, repository.findFirstPage(Limit.of(100)).size());
+    }
+}
@@ -0,0 +1,70 @@
+package org.mupro.nshakira.match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LshIndexTest {
+
+    private final MinHasher minHasher = new MinHasher(128, 0x5eedL);
+
+    @Test
+    void minHashSimilarityEstimatesJaccard() {
+        Set<String> a = terms(0, 100);
+        Set<String> b = terms(50, 150);
+
+        float estimate = MinHasher.similarity(minHasher.signature(a), minHasher.signature(b));
+
+        // True Jaccard is 50 / 150.
+        assertEquals(1f / 3, estimate, 0.1f);
+        assertEquals(1f, MinHasher.similarity(minHasher.signature(a), minHasher.signature(a)));
+    }
+
+    @Test
+    void similarItemsShareABucketAndUnrelatedOnesDoNot() {
+        LshIndex index = new LshIndex(64, 2);
+        index.add(candidate(1L, Set.of("black", "leather", "wallet", "student", "card")));
+        index.add(candidate(2L, Set.of("red", "umbrella", "wooden", "handle")));
+
+        List<Long> hits = ids(index.candidatesFor(
+                minHasher.signature(Set.of("black", "wallet", "leather", "card", "cash"))));
+
+        assertTrue(hits.contains(1L));
+        assertFalse(hits.contains(2L));
+    }
+
+    @Test
+    void removedAndReplacedItemsLeaveNoStaleBuckets() {
+        LshIndex index = new LshIndex(64, 2);
+        Set<String> phone = Set.of("blue", "phone", "cracked", "screen");
+        index.add(candidate(1L, phone));
+        index.add(candidate(1L, Set.of("green", "bottle", "steel")));
+        index.add(candidate(2L, phone));
+        index.remove(2L);
+
+        assertEquals(List.of(), index.candidatesFor(minHasher.signature(phone)));
+        assertEquals(1, index.size());
+    }
+
+    private MatchCandidate candidate(Long id, Set<String> terms) {
+        return new MatchCandidate(id, minHasher.signature(terms), Set.of(), null);
+    }
+
+    private static List<Long> ids(List<MatchCandidate> candidates) {
+        return candidates.stream().map(MatchCandidate::itemId).toList();
+    }
+
+    private static Set<String> terms(int from, int to) {
+        Set<String> terms = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            terms.add("term" + i);
+        }
+        return terms;
+    }
+}
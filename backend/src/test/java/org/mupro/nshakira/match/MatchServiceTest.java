@@ -0,0 +1,91 @@
+package org.mupro.nshakira.match;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.found.FoundItem;
+import org.mupro.nshakira.found.FoundItemRepository;
+import org.mupro.nshakira.lost.LostItem;
+import org.mupro.nshakira.lost.LostItemRepository;
+import org.mupro.nshakira.match.dto.MatchResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Test transactions are disabled: reporting an item commits it before matching runs, as it does in production.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(MatchService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MatchServiceTest {
+
+    @Autowired private MatchService matchService;
+    @Autowired private MatchSuggestionRepository matchSuggestionRepository;
+    @Autowired private LostItemRepository lostItemRepository;
+    @Autowired private FoundItemRepository foundItemRepository;
+
+    @AfterEach
+    void tearDown() {
+        matchSuggestionRepository.deleteAll();
+        lostItemRepository.deleteAll();
+        foundItemRepository.deleteAll();
+    }
+
+    @Test
+    void matchingFoundItemIsSuggestedForTheLostOne() {
+        LocalDateTime lostAt = LocalDateTime.of(2025, 3, 3, 10, 0);
+        LostItem lost = lostItemRepository.save(new LostItem("Black leather wallet",
+                "Student card and some cash inside", "Main library", lostAt, false, null));
+        FoundItem found = foundItemRepository.save(new FoundItem("Wallet, black leather",
+                "Has a student card", "Library entrance", lostAt.plusHours(5), false, null));
+        FoundItem unrelated = foundItemRepository.save(new FoundItem("Red umbrella",
+                "Wooden handle", "Gym", lostAt.plusDays(30), false, null));
+
+        matchService.onFoundItemSaved(found);
+        matchService.onFoundItemSaved(unrelated);
+        matchService.onLostItemSaved(lost);
+
+        List<MatchResponse> matches = matchService.getMatchesForLostItem(lost.getId());
+        assertEquals(1, matches.size());
+        assertEquals(found.getId(), matches.get(0).foundItemId());
+    }
+
+    // Both reports score the same pair when they race; the second insert must be skipped, not fail the report.
+    @Test
+    void pairScoredFromBothSidesIsStoredOnce() {
+        LocalDateTime lostAt = LocalDateTime.of(2025, 3, 3, 10, 0);
+        LostItem lost = lostItemRepository.save(new LostItem("Blue water bottle",
+                "Steel, dented lid", "Cafeteria", lostAt, false, null));
+        FoundItem found = foundItemRepository.save(new FoundItem("Steel water bottle",
+                "Blue with a dented lid", "Cafeteria", lostAt.plusHours(2), false, null));
+
+        matchService.onLostItemSaved(lost);
+        matchService.onFoundItemSaved(found);
+        matchService.onLostItemSaved(lost);
+
+        assertEquals(1, matchSuggestionRepository.count());
+    }
+
+    @Test
+    void rebuildIndexesOnlyOpenItems() {
+        LocalDateTime foundAt = LocalDateTime.of(2025, 4, 7, 15, 0);
+        FoundItem open = foundItemRepository.save(new FoundItem("Grey hoodie",
+                "Zip up, university logo", "Lecture hall B", foundAt, false, null));
+        foundItemRepository.save(new FoundItem("Grey hoodie",
+                "Zip up, university logo", "Lecture hall B", foundAt, true, null));
+
+        matchService.rebuild();
+        LostItem lost = lostItemRepository.save(new LostItem("Grey university hoodie",
+                "Zip up with the logo", "Lecture hall B", foundAt.minusHours(3), false, null));
+        matchService.onLostItemSaved(lost);
+
+        List<MatchResponse> matches = matchService.getMatchesForLostItem(lost.getId());
+        assertEquals(1, matches.size());
+        assertEquals(open.getId(), matches.get(0).foundItemId());
+    }
+}
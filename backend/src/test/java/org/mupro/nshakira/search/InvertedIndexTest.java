@@ -0,0 +1,82 @@
+package org.mupro.nshakira.search;
+
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.common.ItemType;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    private void add(ItemType type, long id, String text, boolean isOpen) {
+        index.upsert(type, id, TextAnalyzer.analyze(text), isOpen);
+    }
+
+    private List<SearchHit> search(String query, ItemType type, boolean openOnly, int limit) {
+        return index.search(TextAnalyzer.analyze(query), type, openOnly, limit);
+    }
+
+    @Test
+    void documentsMatchingMoreAndRarerTermsRankFirst() {
+        add(ItemType.LOST, 1, "Black wallet with student card", true);
+        add(ItemType.LOST, 2, "Black umbrella", true);
+        add(ItemType.FOUND, 3, "Black backpack", true);
+        add(ItemType.FOUND, 4, "Keys on a red lanyard", true);
+
+        List<SearchHit> hits = search("black wallet", null, false, 10);
+
+        assertEquals(3, hits.size());
+        assertEquals(1L, hits.get(0).itemId());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        // Stemmed on both sides.
+        assertEquals(4L, search("key", null, false, 10).get(0).itemId());
+    }
+
+    @Test
+    void reindexedRemovedAndClosedDocumentsAreFilteredOut() {
+        add(ItemType.LOST, 1, "Silver laptop charger", true);
+        add(ItemType.FOUND, 1, "Laptop sleeve", true);
+        add(ItemType.LOST, 2, "Laptop bag", true);
+
+        add(ItemType.LOST, 1, "Silver bracelet", true);
+        index.remove(ItemType.LOST, 2);
+        index.setOpen(ItemType.FOUND, 1, false);
+
+        assertEquals(List.of(), search("laptop", null, true, 10));
+        List<SearchHit> all = search("laptop", null, false, 10);
+        assertEquals(1, all.size());
+        assertEquals(ItemType.FOUND, all.get(0).itemType());
+        assertEquals(1L, search("bracelet", ItemType.LOST, false, 10).get(0).itemId());
+        assertEquals(List.of(), search("bracelet", ItemType.FOUND, false, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void prunedTopKMatchesExhaustiveRanking() {
+        String[] vocabulary = {"black", "blue", "red", "wallet", "phone", "keys", "bottle", "jacket", "library",
+                "cafeteria", "gym", "leather", "charger", "card", "umbrella", "glasses"};
+        Random random = new Random(42);
+        for (long id = 0; id < 2000; id++) {
+            StringBuilder text = new StringBuilder();
+            int words = 2 + random.nextInt(10);
+            for (int w = 0; w < words; w++) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            add(ItemType.values()[(int) (id % 2)], id, text.toString(), true);
+        }
+
+        String query = "black leather wallet library";
+        List<SearchHit> exhaustive = search(query, null, false, 2000);
+        List<SearchHit> top = search(query, null, false, 10);
+
+        assertEquals(10, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(exhaustive.get(i).score(), top.get(i).score(), 1e-4);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.mupro.nshakira.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashingPasswordEncoderTest {
+
+    @Test
+    void onlyHashesWithALowerCostAreUpgraded() {
+        HashingPasswordEncoder encoder = encoder(5, Duration.ofMillis(250), 4);
+        try {
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+            assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+            assertFalse(encoder.upgradeEncoding("{noop}secret"));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void calibrationNeverGoesBelowTheConfiguredMinimum() {
+        // No hash can finish in a nanosecond, so calibration alone would pick the lowest cost it can.
+        HashingPasswordEncoder encoder = encoder(0, Duration.ofNanos(1), 11);
+        try {
+            assertTrue(encoder.upgradeEncoding("$2a$10$" + "a".repeat(53)));
+            assertFalse(encoder.upgradeEncoding("$2a$11$" + "a".repeat(53)));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    private static HashingPasswordEncoder encoder(int configuredCost, Duration targetHashTime, int minCost) {
+        return new HashingPasswordEncoder(configuredCost, targetHashTime, minCost, 16, 1, 4, Duration.ofSeconds(10),
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,85 @@
+package org.mupro.nshakira.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.user.Role;
+import org.mupro.nshakira.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Auth-filter token work per request. perRequestParsing reproduces the old JwtService: key and parser rebuilt and
+// the token parsed three times (username in the filter, then username and expiry in isTokenValid).
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.mupro.nshakira.security.JwtAuthBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyThatIsAtLeast32BytesLong!";
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, Duration.ofMinutes(15), Duration.ofDays(14),
+                new BoundedCache<>("verifiedTokens", 10_000, Duration.ofMinutes(15)), new SimpleMeterRegistry());
+        // A zero ttl means nothing is ever cached: every call pays for one full parse with the shared parser.
+        uncachedJwtService = new JwtService(SECRET, Duration.ofMinutes(15), Duration.ofDays(14),
+                new BoundedCache<>("verifiedTokens", 10_000, Duration.ZERO), new SimpleMeterRegistry());
+        token = jwtService.generateAccessToken(new User("Bench", "bench@example.com", "x", Role.USER, true));
+    }
+
+    @Benchmark
+    public boolean perRequestParsing() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean verifyOnceUncached() {
+        VerifiedToken verified = uncachedJwtService.verify(token);
+        return !verified.isExpired();
+    }
+
+    @Benchmark
+    public boolean verifyOnceCached() {
+        VerifiedToken verified = jwtService.verify(token);
+        return !verified.isExpired();
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package org.mupro.nshakira.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.common.BoundedCache;
+import org.mupro.nshakira.user.Role;
+import org.mupro.nshakira.user.User;
+import org.mupro.nshakira.user.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Test transactions are disabled so the bump commits and a request on another thread sees only committed rows.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({TokenVersions.class, TokenVersionsTest.CacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenVersionsTest {
+
+    @Autowired private TokenVersions tokenVersions;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void versionReadBeforeTheBumpCommitsIsNotKeptCached() {
+        User user = userRepository.save(new User("Reader", "reader@example.com", "hash", Role.USER, true));
+        int before = tokenVersions.current(user.getEmail());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tokenVersions.bump(user);
+            // A concurrent request reloads the committed (old) version between the bump and the commit.
+            assertEquals(before, CompletableFuture.supplyAsync(() -> tokenVersions.current(user.getEmail())).join());
+        });
+
+        assertEquals(before + 1, tokenVersions.current(user.getEmail()));
+    }
+
+    @TestConfiguration
+    static class CacheConfig {
+        @Bean
+        BoundedCache<String, Integer> tokenVersionCache() {
+            return new BoundedCache<>("tokenVersions", 100, Duration.ofSeconds(30));
+        }
+    }
+}
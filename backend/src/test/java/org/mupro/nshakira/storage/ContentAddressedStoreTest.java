@@ -0,0 +1,96 @@
+package org.mupro.nshakira.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentAddressedStoreTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private StoredBlobCounts blobs;
+    private ImageStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        blobs = new StoredBlobCounts();
+        ContentAddressedStore store = new ContentAddressedStore(uploadDir.toString(), blobs.repository());
+        storage = new ImageStorageService(uploadDir.toString(), DataSize.ofMegabytes(1), store);
+    }
+
+    @Test
+    void identicalUploadsShareOneBlobUntilTheLastReferenceIsReleased() throws IOException {
+        byte[] photo = ImageStorageServiceTest.png(2048);
+
+        String first = storage.store(upload(photo));
+        String second = storage.store(upload(photo));
+
+        assertEquals(first, second);
+        Path file = storage.resolve(first);
+        String hash = ContentAddressedStore.hashOf(first.substring("/uploads/".length()));
+        assertEquals(2, blobs.count(hash));
+
+        storage.release(first);
+        assertTrue(Files.exists(file));
+        assertEquals(1, blobs.count(hash));
+
+        storage.release(second);
+        assertFalse(Files.exists(file));
+        assertEquals(0, blobs.blobs());
+    }
+
+    @Test
+    void differentContentIsStoredSeparately() throws IOException {
+        String first = storage.store(upload(ImageStorageServiceTest.png(100)));
+        String second = storage.store(upload(ImageStorageServiceTest.png(101)));
+
+        assertNotEquals(first, second);
+        assertEquals(2, blobs.blobs());
+        storage.release(first);
+        assertTrue(Files.exists(storage.resolve(second)));
+    }
+
+    @Test
+    void pathsOutsideTheStoreAreNeverReleased() throws IOException {
+        Path legacy = Files.writeString(uploadDir.resolve("legacy.jpg"), "old upload");
+
+        storage.release("/uploads/legacy.jpg");
+        storage.release(null);
+
+        assertTrue(Files.exists(legacy));
+        assertNull(ContentAddressedStore.hashOf("legacy.jpg"));
+    }
+
+    @Test
+    void referenceIsHandedBackWhenTheBlobCannotBeWritten() throws Exception {
+        byte[] photo = ImageStorageServiceTest.png(512);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(photo));
+        // A plain file where the blob's first-level directory should go makes the move fail.
+        Files.writeString(uploadDir.resolve(hash.substring(0, 2)), "in the way");
+
+        assertThrows(IOException.class, () -> storage.store(upload(photo)));
+
+        assertEquals(0, blobs.count(hash));
+        assertEquals(0, blobs.blobs());
+    }
+
+    private static MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("image", "photo.png", "image/png", content);
+    }
+}
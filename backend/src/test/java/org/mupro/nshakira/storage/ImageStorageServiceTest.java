@@ -0,0 +1,104 @@
+package org.mupro.nshakira.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mupro.nshakira.exception.InvalidUploadException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageStorageServiceTest {
+
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @TempDir
+    Path uploadDir;
+
+    private StoredBlobCounts blobs;
+    private ImageStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        blobs = new StoredBlobCounts();
+        ContentAddressedStore store = new ContentAddressedStore(uploadDir.toString(), blobs.repository());
+        storage = new ImageStorageService(uploadDir.toString(), DataSize.ofKilobytes(1), store);
+    }
+
+    @Test
+    void validImageIsStoredUnderItsContentHash() throws IOException {
+        byte[] content = png(600);
+
+        String path = storage.store(new MockMultipartFile("image", "photo.png", "image/png", content));
+
+        assertTrue(path.matches("/uploads/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.png"), path);
+        assertArrayEquals(content, Files.readAllBytes(storage.resolve(path)));
+        assertEquals(1, blobs.blobs());
+        assertNoTempFilesLeft();
+    }
+
+    @Test
+    void sizeIsEnforcedOnTheBytesReceivedNotTheDeclaredSize() {
+        // The declared size passes the cheap up-front check; the streamed body is what gets counted.
+        MockMultipartFile understated = new MockMultipartFile("image", "big.png", "image/png", png(1025)) {
+            @Override
+            public long getSize() {
+                return 10;
+            }
+        };
+
+        assertThrows(InvalidUploadException.class, () -> storage.store(understated));
+        assertEquals(0, blobs.blobs());
+        assertNoTempFilesLeft();
+    }
+
+    @Test
+    void declaredTypeMustMatchTheContent() throws IOException {
+        byte[] html = "<html><body>not an image</body></html>".getBytes();
+
+        assertThrows(InvalidUploadException.class,
+                () -> storage.store(new MockMultipartFile("image", "x.png", "image/png", html)));
+        assertThrows(InvalidUploadException.class,
+                () -> storage.store(new MockMultipartFile("image", "x.svg", "image/svg+xml", png(100))));
+        assertNull(storage.store(new MockMultipartFile("image", "empty.png", "image/png", new byte[0])));
+        assertEquals(0, blobs.blobs());
+        assertNoTempFilesLeft();
+    }
+
+    @Test
+    void imageOfExactlyTheMaximumSizeIsAccepted() throws IOException {
+        String path = storage.store(new MockMultipartFile("image", "edge.png", "image/png", png(1024)));
+
+        assertEquals(1024, Files.size(storage.resolve(path)));
+    }
+
+    static byte[] png(int length) {
+        byte[] content = Arrays.copyOf(PNG_MAGIC, length);
+        for (int i = PNG_MAGIC.length; i < length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    private void assertNoTempFilesLeft() {
+        Path temp = uploadDir.resolve(".tmp");
+        if (Files.isDirectory(temp)) {
+            try (Stream<Path> files = Files.list(temp)) {
+                assertEquals(0, files.count());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.mupro.nshakira.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Stands in for stored_blob: its acquire is a PostgreSQL upsert that H2 cannot run, so the reference counts are kept
+// in a map with the same semantics as the three repository statements.
+class StoredBlobCounts {
+
+    private final Map<String, Long> counts = new HashMap<>();
+    private final StoredBlobRepository repository = mock(StoredBlobRepository.class);
+
+    StoredBlobCounts() {
+        doAnswer(invocation -> {
+            counts.merge(invocation.getArgument(0), 1L, Long::sum);
+            return null;
+        }).when(repository).acquire(anyString(), anyLong(), anyString());
+        when(repository.release(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            Long count = counts.get(hash);
+            if (count == null || count == 0) {
+                return 0;
+            }
+            counts.put(hash, count - 1);
+            return 1;
+        });
+        when(repository.deleteIfUnreferenced(anyString())).thenAnswer(invocation ->
+                counts.remove(invocation.getArgument(0), 0L) ? 1 : 0);
+    }
+
+    StoredBlobRepository repository() {
+        return repository;
+    }
+
+    long count(String hash) {
+        return counts.getOrDefault(hash, 0L);
+    }
+
+    int blobs() {
+        return counts.size();
+    }
+}
@@ -0,0 +1,31 @@
+package org.mupro.nshakira.verification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// verify runs in its own transaction, so test transactions are disabled and every call sees the previous commits.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "verification.store=database"
+})
+@Import(DatabaseVerificationCodeStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseVerificationCodeStoreTest extends VerificationCodeStoreContractTest {
+
+    @Autowired private DatabaseVerificationCodeStore store;
+    @Autowired private VerificationCodeRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Override
+    VerificationCodeStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,11 @@
+package org.mupro.nshakira.verification;
+
+class InMemoryVerificationCodeStoreTest extends VerificationCodeStoreContractTest {
+
+    private final InMemoryVerificationCodeStore store = new InMemoryVerificationCodeStore();
+
+    @Override
+    VerificationCodeStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,78 @@
+package org.mupro.nshakira.verification;
+
+import org.junit.jupiter.api.Test;
+import org.mupro.nshakira.exception.InvalidOtpException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Behaviour every VerificationCodeStore must share; each implementation runs it through a subclass.
+abstract class VerificationCodeStoreContractTest {
+
+    private static final String KEY = "LOGIN_OTP:user@example.com";
+    private static final String CODE = "a".repeat(64);
+    private static final String WRONG = "b".repeat(64);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    abstract VerificationCodeStore store();
+
+    @Test
+    void codeCanBeUsedOnlyOnce() {
+        store().save(KEY, CODE, now.plusMinutes(10));
+
+        assertEquals(VerificationResult.VALID, store().verify(KEY, CODE, MAX_ATTEMPTS, now));
+        assertEquals(VerificationResult.EXPIRED, store().verify(KEY, CODE, MAX_ATTEMPTS, now));
+    }
+
+    @Test
+    void expiredCodeIsRejectedAndPurged() {
+        store().save(KEY, CODE, now.plusMinutes(10));
+        store().save("PASSWORD_RESET:user@example.com", CODE, now.minusSeconds(1));
+
+        assertEquals(VerificationResult.EXPIRED, store().verify(KEY, CODE, MAX_ATTEMPTS, now.plusMinutes(11)));
+
+        store().purgeExpired(now);
+        assertEquals(VerificationResult.EXPIRED,
+                store().verify("PASSWORD_RESET:user@example.com", CODE, MAX_ATTEMPTS, now.minusMinutes(1)));
+    }
+
+    @Test
+    void lastAllowedWrongGuessLocksTheCodeEvenForTheRightOne() {
+        store().save(KEY, CODE, now.plusMinutes(10));
+
+        assertEquals(VerificationResult.INVALID, store().verify(KEY, WRONG, MAX_ATTEMPTS, now));
+        assertEquals(VerificationResult.INVALID, store().verify(KEY, WRONG, MAX_ATTEMPTS, now));
+        assertEquals(VerificationResult.LOCKED, store().verify(KEY, WRONG, MAX_ATTEMPTS, now));
+        assertEquals(VerificationResult.EXPIRED, store().verify(KEY, CODE, MAX_ATTEMPTS, now));
+    }
+
+    @Test
+    void reissuingReplacesTheCodeAndResetsAttempts() {
+        store().save(KEY, WRONG, now.plusMinutes(10));
+        store().verify(KEY, CODE, MAX_ATTEMPTS, now);
+        store().verify(KEY, CODE, MAX_ATTEMPTS, now);
+
+        store().save(KEY, CODE, now.plusMinutes(10));
+
+        assertEquals(VerificationResult.INVALID, store().verify(KEY, WRONG, MAX_ATTEMPTS, now));
+        assertEquals(VerificationResult.VALID, store().verify(KEY, CODE, MAX_ATTEMPTS, now));
+    }
+
+    @Test
+    void serviceAcceptsAnIssuedCodeOnceForItsPurposeOnly() {
+        VerificationCodeService service = new VerificationCodeService(store(), Duration.ofMinutes(10), MAX_ATTEMPTS);
+        String code = service.issue(VerificationPurpose.LOGIN_OTP, "user@example.com");
+
+        assertThrows(InvalidOtpException.class,
+                () -> service.verify(VerificationPurpose.PASSWORD_RESET, "user@example.com", code));
+        assertDoesNotThrow(() -> service.verify(VerificationPurpose.LOGIN_OTP, "user@example.com", " " + code + " "));
+        assertThrows(InvalidOtpException.class,
+                () -> service.verify(VerificationPurpose.LOGIN_OTP, "user@example.com", code));
+    }
+}